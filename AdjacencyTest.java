@@ -0,0 +1,134 @@
+/* AdjacencyTest.java */
+
+/**
+ * The AdjacencyTest class tests a WUGraph vertex whose degree grows past the
+ * point where its adjacency turns from a small array into a hash table (8
+ * neighbors) and then shrinks below the point where it turns back (4).
+ * After every step it compares the graph against a HashMap of what the
+ * vertex's neighbors and weights should be.
+ */
+
+import graph.*;
+import java.util.*;
+
+public class AdjacencyTest {
+
+  private static final int OTHERS = 12;
+
+  /**
+   * Checks degree(), isEdge(), weight() and getNeighbors() of "center"
+   * against "expected", and the other side of each edge as well.  Returns the
+   * number of problems found.
+   */
+  private static int check(WUGraph g, String step, Object center,
+                           HashMap<Object,Integer> expected) {
+    int problems = 0;
+    if (g.degree(center) != expected.size()) {
+      System.out.println(step + ":  degree() returns " + g.degree(center) +
+                         "; should return " + expected.size() + ".");
+      problems++;
+    }
+    Object[] vertices = g.getVertices();
+    for (int i = 0; i < vertices.length; i++) {
+      Object v = vertices[i];
+      boolean edge = expected.containsKey(v);
+      int weight = edge ? expected.get(v) : 0;
+      if (g.isEdge(center, v) != edge || g.isEdge(v, center) != edge ||
+          g.weight(center, v) != weight || g.weight(v, center) != weight) {
+        System.out.println(step + ":  isEdge()/weight() to " + v +
+                           " disagree with " + expected + ".");
+        problems++;
+      }
+    }
+    HashMap<Object,Integer> actual = new HashMap<Object,Integer>();
+    Neighbors n = g.getNeighbors(center);
+    if (n != null) {
+      for (int j = 0; j < n.neighborList.length; j++) {
+        if (actual.put(n.neighborList[j], n.weightList[j]) != null) {
+          System.out.println(step + ":  getNeighbors() lists " +
+                             n.neighborList[j] + " twice.");
+          problems++;
+        }
+      }
+    }
+    if (!actual.equals(expected)) {
+      System.out.println(step + ":  getNeighbors() returns " + actual +
+                         "; should return " + expected + ".");
+      problems++;
+    }
+    return problems;
+  }
+
+  public static void main(String[] args) {
+    int score = 3;
+    WUGraph g = new WUGraph();
+    HashMap<Object,Integer> expected = new HashMap<Object,Integer>();
+    String center = "center";
+    g.addVertex(center);
+    for (int i = 0; i < OTHERS; i++) {
+      g.addVertex("u" + i);
+    }
+
+    System.out.println("Growing a vertex to degree " + (OTHERS + 1) + ".");
+    int problems = 0;
+    g.addEdge(center, center, 100);
+    expected.put(center, 100);
+    problems += check(g, "self-edge", center, expected);
+    for (int i = 0; i < OTHERS; i++) {
+      g.addEdge(center, "u" + i, i);
+      expected.put("u" + i, i);
+      problems += check(g, "add u" + i, center, expected);
+    }
+    if (problems > 0) {
+      score--;
+    }
+
+    System.out.println("Updating weights across the hash table.");
+    problems = 0;
+    for (int i = 0; i < OTHERS; i += 3) {
+      g.addEdge("u" + i, center, -i);
+      expected.put("u" + i, -i);
+    }
+    g.addEdge(center, center, 101);
+    expected.put(center, 101);
+    problems += check(g, "update", center, expected);
+    if (problems > 0) {
+      score--;
+    }
+
+    System.out.println("Shrinking the vertex back to degree 1.");
+    problems = 0;
+    for (int i = OTHERS - 1; i >= 0; i--) {
+      if (i % 2 == 0) {
+        g.removeEdge("u" + i, center);
+      } else {
+        g.removeEdge(center, "u" + i);
+      }
+      expected.remove("u" + i);
+      problems += check(g, "remove u" + i, center, expected);
+      if (i == 6) {
+        //Cross the thresholds a second time while the vertex is small.
+        for (int j = 6; j < OTHERS; j++) {
+          g.addEdge(center, "u" + j, 50 + j);
+          expected.put("u" + j, 50 + j);
+        }
+        problems += check(g, "regrow", center, expected);
+        for (int j = OTHERS - 1; j >= 6; j--) {
+          g.removeEdge(center, "u" + j);
+          expected.remove("u" + j);
+          problems += check(g, "remove u" + j + " again", center, expected);
+        }
+      }
+    }
+    if (g.edgeCount() != 1 || !g.isEdge(center, center)) {
+      System.out.println("Only the self-edge should remain; edgeCount() " +
+                         "returns " + g.edgeCount() + ".");
+      problems++;
+    }
+    if (problems > 0) {
+      score--;
+    }
+
+    System.out.println("Your adjacency test score is " + score + " out of 3.");
+  }
+}
@@ -0,0 +1,261 @@
+/* AllocationBench.java */
+
+/**
+ * The AllocationBench class measures how many bytes the dictionary and graph
+ * hot paths allocate per operation, using the JVM's per-thread allocation counter.
+ * Each operation is warmed up first so that the JIT has compiled it.  A
+ * correct allocation-free path reports 0.0 bytes/op.
+ *
+ * Run with:  java AllocationBench
+ */
+
+import java.lang.management.ManagementFactory;
+import dict.*;
+import graph.*;
+
+public class AllocationBench {
+
+  private static final int KEYS = 1 << 16;
+  private static final int OPS = 2000000;
+  private static final int ROUNDS = 5;
+
+  private static com.sun.management.ThreadMXBean bean =
+    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  /**
+   * An operation to measure.  run() returns something derived from its
+   * result so that the JIT cannot discard the work.
+   */
+  interface Op {
+    int run(int i);
+  }
+
+  private static int sink;
+
+  private static double bytesPerOp(Op op) {
+    return bytesPerOp(null, op, OPS);
+  }
+
+  /**
+   * Measures "ops" calls of op, after calling setup.run(round) (if setup is
+   * not null) outside the measurement at the start of each round.
+   */
+  private static double bytesPerOp(Op setup, Op op, int ops) {
+    double best = Double.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      if (setup != null) {
+        sink += setup.run(round);
+      }
+      long tid = Thread.currentThread().getId();
+      long before = bean.getThreadAllocatedBytes(tid);
+      for (int i = 0; i < ops; i++) {
+        sink += op.run(i);
+      }
+      long after = bean.getThreadAllocatedBytes(tid);
+      best = Math.min(best, ((double) (after - before)) / ops);
+    }
+    return best;
+  }
+
+  private static void report(String name, Op op) {
+    System.out.println(name + ": " + bytesPerOp(op) + " bytes/op");
+  }
+
+  private static void report(String name, Op setup, Op op, int ops) {
+    System.out.println(name + ": " + bytesPerOp(setup, op, ops) + " bytes/op");
+  }
+
+  public static void main(String[] args) {
+    final Integer[] present = new Integer[KEYS];
+    final Integer[] absent = new Integer[KEYS];
+    for (int i = 0; i < KEYS; i++) {
+      present[i] = i;
+      absent[i] = i + KEYS;
+    }
+    final Integer one = 1;
+    final Integer two = 2;
+
+    final HashTable<Integer,Integer> table = new HashTable<Integer,Integer>(KEYS);
+    for (Integer k : present) {
+      table.insert(k, one);
+    }
+    report("HashTable.find (hit)", new Op() {
+      public int run(int i) {
+        return table.find(present[i & (KEYS - 1)]) == null ? 0 : 1;
+      }
+    });
+    report("HashTable.find (miss)", new Op() {
+      public int run(int i) {
+        return table.find(absent[i & (KEYS - 1)]) == null ? 0 : 1;
+      }
+    });
+    report("HashTable.get (miss)", new Op() {
+      public int run(int i) {
+        return table.get(absent[i & (KEYS - 1)]) == null ? 0 : 1;
+      }
+    });
+    report("HashTable.put (update)", new Op() {
+      public int run(int i) {
+        return table.put(present[i & (KEYS - 1)], (i & 1) == 0 ? one : two) == one ? 1 : 0;
+      }
+    });
+    report("HashTable.insert (update)", new Op() {
+      public int run(int i) {
+        return table.insert(present[i & (KEYS - 1)], one) == null ? 0 : 1;
+      }
+    });
+    report("HashTable.remove (miss)", new Op() {
+      public int run(int i) {
+        return table.remove(absent[i & (KEYS - 1)]) == null ? 0 : 1;
+      }
+    });
+
+    final OpenHashTable<Integer,Integer> open = new OpenHashTable<Integer,Integer>(KEYS);
+    for (Integer k : present) {
+      open.put(k, one);
+    }
+    report("OpenHashTable.get (hit)", new Op() {
+      public int run(int i) {
+        return open.get(present[i & (KEYS - 1)]) == null ? 0 : 1;
+      }
+    });
+    report("OpenHashTable.get (miss)", new Op() {
+      public int run(int i) {
+        return open.get(absent[i & (KEYS - 1)]) == null ? 0 : 1;
+      }
+    });
+
+    final ObjIntHashMap<Integer> ints = new ObjIntHashMap<Integer>(KEYS);
+    for (Integer k : present) {
+      ints.put(k, 1);
+    }
+    report("ObjIntHashMap.get (hit)", new Op() {
+      public int run(int i) {
+        return ints.get(present[i & (KEYS - 1)], 0);
+      }
+    });
+    report("ObjIntHashMap.put (update)", new Op() {
+      public int run(int i) {
+        return ints.put(present[i & (KEYS - 1)], i) ? 1 : 0;
+      }
+    });
+
+    final HashTable<Integer,Integer> churn = new HashTable<Integer,Integer>(KEYS);
+    report("HashTable insert+remove", new Op() {
+      public int run(int i) {
+        Integer k = present[i & (KEYS - 1)];
+        churn.insert(k, one);
+        return churn.remove(k) == null ? 0 : 1;
+      }
+    });
+    churn.setNodeRecycling(1024);
+    report("HashTable insert+remove, recycling nodes", new Op() {
+      public int run(int i) {
+        Integer k = present[i & (KEYS - 1)];
+        churn.insert(k, one);
+        return churn.remove(k) == null ? 0 : 1;
+      }
+    });
+    System.out.println("  " + churn.nodePool());
+
+    // A graph whose vertices form a ring, so vertex i has neighbors i - 1
+    // and i + 1, plus a chord to i + KEYS / 2 on every eighth vertex.
+    final WUGraph g = new WUGraph(KEYS, 2 * KEYS);
+    for (Integer k : present) {
+      g.addVertex(k);
+    }
+    for (int i = 0; i < KEYS; i++) {
+      g.addEdge(present[i], present[(i + 1) & (KEYS - 1)], i);
+      if ((i & 7) == 0) {
+        g.addEdge(present[i], present[(i + KEYS / 2) & (KEYS - 1)], i);
+      }
+    }
+    report("WUGraph.isEdge (hit)", new Op() {
+      public int run(int i) {
+        return g.isEdge(present[i & (KEYS - 1)], present[(i + 1) & (KEYS - 1)]) ? 1 : 0;
+      }
+    });
+    report("WUGraph.isEdge (miss)", new Op() {
+      public int run(int i) {
+        return g.isEdge(present[i & (KEYS - 1)], present[(i + 2) & (KEYS - 1)]) ? 1 : 0;
+      }
+    });
+    report("WUGraph.isEdge (not a vertex)", new Op() {
+      public int run(int i) {
+        return g.isEdge(present[i & (KEYS - 1)], absent[i & (KEYS - 1)]) ? 1 : 0;
+      }
+    });
+    report("WUGraph.weight (hit)", new Op() {
+      public int run(int i) {
+        return g.weight(present[i & (KEYS - 1)], present[(i + 1) & (KEYS - 1)]);
+      }
+    });
+    report("WUGraph.removeEdge (miss)", new Op() {
+      public int run(int i) {
+        g.removeEdge(present[i & (KEYS - 1)], present[(i + 2) & (KEYS - 1)]);
+        return g.edgeCount();
+      }
+    });
+    report("WUGraph.isHandleEdge() (hit)", new Op() {
+      public int run(int i) {
+        return g.isHandleEdge(i & (KEYS - 1), (i + 1) & (KEYS - 1)) ? 1 : 0;
+      }
+    });
+    final int[] total = new int[1];
+    final NeighborConsumer add = new NeighborConsumer() {
+      public void accept(Object neighbor, int weight) {
+        total[0] += weight;
+      }
+    };
+    report("WUGraph.forEachNeighbor", new Op() {
+      public int run(int i) {
+        g.forEachNeighbor(present[i & (KEYS - 1)], add);
+        return total[0];
+      }
+    });
+    final NeighborCursor cursor = g.neighborCursor();
+    report("WUGraph NeighborCursor", new Op() {
+      public int run(int i) {
+        int sum = 0;
+        cursor.reset(present[i & (KEYS - 1)]);
+        while (cursor.next()) {
+          sum += cursor.weight();
+        }
+        return sum;
+      }
+    });
+    final Neighbors reuse = new Neighbors();
+    report("WUGraph.getNeighbors (reused)", new Op() {
+      public int run(int i) {
+        return g.getNeighbors(present[i & (KEYS - 1)], reuse);
+      }
+    });
+
+    // A graph of stars:  each hub has degree 9, so its adjacency is a hash
+    // table, and removing five of its edges takes it below the demotion
+    // threshold.  Each round rebuilds the stars before it is measured.
+    final int HUBS = KEYS / 10;
+    final WUGraph stars = new WUGraph(KEYS, KEYS);
+    for (Integer k : present) {
+      stars.addVertex(k);
+    }
+    final Op rebuild = new Op() {
+      public int run(int round) {
+        for (int h = 0; h < HUBS * 10; h += 10) {
+          for (int j = 1; j <= 9; j++) {
+            stars.addHandleEdge(h, h + j, j);
+          }
+        }
+        return stars.edgeCount();
+      }
+    };
+    report("WUGraph.removeEdge (across degree 4)", rebuild, new Op() {
+      public int run(int i) {
+        int hub = i / 5 * 10;
+        stars.removeEdge(present[hub], present[hub + 1 + i % 5]);
+        return stars.degree(present[hub]);
+      }
+    }, HUBS * 5);
+    System.out.println("(checksum " + sink + ")");
+  }
+}
@@ -0,0 +1,165 @@
+/* CsrTest.java */
+
+/**
+ * The CsrTest class tests WUGraph.toCsr(), the CsrGraph class, and
+ * Kruskal.minSpanTree(CsrGraph, boolean), by comparing them against the
+ * WUGraph they were made from.
+ */
+
+import graph.*;
+import graphalg.*;
+import java.util.*;
+
+public class CsrTest {
+
+  private static final int VERTICES = 200;
+  private static final int EDGES = 1500;
+
+  /**
+   * Builds a random graph with self-edges, updated weights, removed edges and
+   * removed vertices (so some vertex handles are reused).
+   */
+  private static WUGraph makeGraph(Random random) {
+    WUGraph g = new WUGraph();
+    for (int i = 0; i < VERTICES; i++) {
+      g.addVertex("v" + i);
+    }
+    for (int i = 0; i < EDGES; i++) {
+      g.addEdge("v" + random.nextInt(VERTICES), "v" + random.nextInt(VERTICES),
+                random.nextInt(200) - 100);
+    }
+    for (int i = 0; i < VERTICES; i += 7) {
+      g.addEdge("v" + i, "v" + i, random.nextInt(200) - 100);
+    }
+    for (int i = 0; i < 200; i++) {
+      g.removeEdge("v" + random.nextInt(VERTICES), "v" + random.nextInt(VERTICES));
+    }
+    for (int i = 0; i < VERTICES; i += 11) {
+      g.removeVertex("v" + i);
+    }
+    for (int i = 0; i < 5; i++) {
+      g.addVertex("w" + i);
+      g.addEdge("w" + i, "v1", i);
+    }
+    g.addEdge("w0", "w0", 7);
+    return g;
+  }
+
+  /**
+   * Returns the total weight of the edges of g, counting each edge once.
+   */
+  private static long totalWeight(WUGraph g) {
+    long twice = 0;
+    Object[] vertices = g.getVertices();
+    for (int i = 0; i < vertices.length; i++) {
+      Neighbors n = g.getNeighbors(vertices[i]);
+      if (n != null) {
+        for (int j = 0; j < n.neighborList.length; j++) {
+          twice += (n.neighborList[j] == vertices[i] ? 2 : 1) * n.weightList[j];
+        }
+      }
+    }
+    return twice / 2;
+  }
+
+  /**
+   * Checks that every row of c holds exactly the neighbors and weights that
+   * g.getNeighbors() reports.  Returns the number of problems found.
+   */
+  private static int rowTest(WUGraph g, CsrGraph c) {
+    int problems = 0;
+    if (c.vertexCount() != g.vertexCount() || c.edgeCount() != g.edgeCount()) {
+      System.out.println("CsrGraph has " + c.vertexCount() + " vertices and " +
+                         c.edgeCount() + " edges; should have " +
+                         g.vertexCount() + " and " + g.edgeCount() + ".");
+      problems++;
+    }
+    Object[] vertices = g.getVertices();
+    for (int i = 0; i < vertices.length; i++) {
+      int u = c.indexOf(vertices[i]);
+      if (u < 0 || c.vertex(u) != vertices[i]) {
+        System.out.println("indexOf()/vertex() do not round-trip " +
+                           vertices[i] + ".");
+        problems++;
+        continue;
+      }
+      HashMap<Object,Integer> expected = new HashMap<Object,Integer>();
+      Neighbors n = g.getNeighbors(vertices[i]);
+      if (n != null) {
+        for (int j = 0; j < n.neighborList.length; j++) {
+          expected.put(n.neighborList[j], n.weightList[j]);
+        }
+      }
+      HashMap<Object,Integer> actual = new HashMap<Object,Integer>();
+      for (int p = c.offsets[u]; p < c.offsets[u + 1]; p++) {
+        if (p > c.offsets[u] && c.targets[p - 1] >= c.targets[p]) {
+          System.out.println("Row of " + vertices[i] + " is not sorted.");
+          problems++;
+        }
+        actual.put(c.vertex(c.targets[p]), c.weights[p]);
+        if (c.weight(u, c.targets[p]) != c.weights[p] ||
+            !c.isEdge(c.targets[p], u)) {
+          System.out.println("weight()/isEdge() disagree with the row of " +
+                             vertices[i] + ".");
+          problems++;
+        }
+      }
+      if (c.degree(u) != g.degree(vertices[i]) || !actual.equals(expected)) {
+        System.out.println("Row of " + vertices[i] + " is " + actual +
+                           "; should be " + expected + ".");
+        problems++;
+      }
+    }
+    if (c.indexOf("v0") != -1 || c.indexOf("nothing") != -1) {
+      System.out.println("indexOf() finds a vertex that is not in the graph.");
+      problems++;
+    }
+    return problems;
+  }
+
+  public static void main(String[] args) {
+    int score = 4;
+    Random random = new Random(19);
+    WUGraph g = makeGraph(random);
+
+    System.out.println("Taking a CSR snapshot.");
+    CsrGraph c = g.toCsr();
+    if (rowTest(g, c) > 0) {
+      score--;
+    }
+
+    System.out.println("Changing the graph after the snapshot.");
+    g.addEdge("v1", "v2", 1000);
+    g.removeVertex("v3");
+    if (c.isEdge(c.indexOf("v1"), c.indexOf("v2")) &&
+        c.weight(c.indexOf("v1"), c.indexOf("v2")) == 1000 ||
+        c.indexOf("v3") < 0) {
+      System.out.println("The snapshot changed along with the graph.");
+      score--;
+    }
+    c = g.toCsr();
+
+    System.out.println("Computing minimum spanning trees.");
+    WUGraph fromGraph = Kruskal.minSpanTree(g);
+    WUGraph fromCsr = Kruskal.minSpanTree(c, false);
+    WUGraph fromCsrParallel = Kruskal.minSpanTree(c, true);
+    long expected = totalWeight(fromGraph);
+    if (totalWeight(fromCsr) != expected ||
+        totalWeight(fromCsrParallel) != expected) {
+      System.out.println("CSR spanning tree weighs " + totalWeight(fromCsr) +
+                         " (parallel: " + totalWeight(fromCsrParallel) +
+                         "); should weigh " + expected + ".");
+      score--;
+    }
+    if (fromCsr.edgeCount() != fromGraph.edgeCount() ||
+        fromCsr.vertexCount() != g.vertexCount()) {
+      System.out.println("CSR spanning tree has " + fromCsr.vertexCount() +
+                         " vertices and " + fromCsr.edgeCount() +
+                         " edges; should have " + g.vertexCount() + " and " +
+                         fromGraph.edgeCount() + ".");
+      score--;
+    }
+
+    System.out.println("Your CsrGraph test score is " + score + " out of 4.");
+  }
+}
@@ -0,0 +1,166 @@
+/* HandleTest.java */
+
+/**
+ * The HandleTest class tests the vertex handles of the WUGraph class:  that
+ * a graph whose vertices are Integers is never confused by its handles, and
+ * that the handle of a removed vertex is reused cleanly.
+ */
+
+import graph.*;
+
+public class HandleTest {
+
+  /**
+   * Builds a graph whose vertices are the Integers 1 to 5, so that every
+   * vertex but 5 is also the handle of some other vertex.
+   */
+  private static int integerTest() {
+    int problems = 0;
+    WUGraph g = new WUGraph();
+    for (int i = 1; i <= 5; i++) {
+      g.addVertex(i);
+    }
+    g.addEdge(1, 2, 12);
+    g.addEdge(3, 3, 33);
+    g.addEdge(4, 5, 45);
+
+    if (g.handleOf(1) != 0 || g.handleOf(5) != 4 ||
+        !Integer.valueOf(5).equals(g.vertexOf(4))) {
+      System.out.println("Vertices 1 to 5 should have handles 0 to 4.");
+      problems++;
+    }
+    if (!g.isEdge(1, 2) || g.weight(1, 2) != 12 || g.isEdge(0, 1) ||
+        !g.isHandleEdge(0, 1) || g.handleWeight(0, 1) != 12) {
+      System.out.println("isEdge()/weight() on Integer vertices were " +
+                         "treated as handles.");
+      problems++;
+    }
+    if (g.degree(5) != 1 || g.handleDegree(4) != 1 || g.isVertex(0) ||
+        !g.isHandle(0)) {
+      System.out.println("degree()/isVertex() on Integer vertices were " +
+                         "treated as handles.");
+      problems++;
+    }
+    g.removeEdge(2, 3);
+    g.removeVertex(5);
+    if (g.edgeCount() != 2 || g.isVertex(5) || !g.isVertex(4) ||
+        !g.isEdge(3, 3)) {
+      System.out.println("removeEdge()/removeVertex() on Integer vertices " +
+                         "were treated as handles.");
+      problems++;
+    }
+    return problems;
+  }
+
+  /**
+   * Removes a vertex and checks that the next vertex added takes over its
+   * handle without inheriting any of its edges.
+   */
+  private static int reuseTest() {
+    int problems = 0;
+    WUGraph g = new WUGraph();
+    for (int i = 0; i < 6; i++) {
+      g.addVertex("v" + i);
+    }
+    g.addEdge("v2", "v0", 1);
+    g.addEdge("v2", "v5", 2);
+    g.addEdge("v2", "v2", 3);
+    int old = g.handleOf("v2");
+    g.removeVertex("v2");
+    if (g.isHandle(old) || g.vertexOf(old) != null || g.handleDegree(old) != 0 ||
+        g.edgeCount() != 0 || g.degree("v0") != 0 || g.degree("v5") != 0) {
+      System.out.println("Removing v2 left its handle or edges behind.");
+      problems++;
+    }
+
+    int h = g.addVertex("x");
+    if (h != old || g.handleOf("x") != old || g.vertexOf(old) != "x" ||
+        g.handleLimit() != 6) {
+      System.out.println("x got handle " + h + "; should reuse " + old + ".");
+      problems++;
+    }
+    if (g.degree("x") != 0 || g.isEdge("x", "v0") || g.isEdge("x", "x") ||
+        g.isHandleEdge(old, g.handleOf("v5")) || g.getNeighbors("x") != null) {
+      System.out.println("x inherited edges of v2.");
+      problems++;
+    }
+
+    g.addEdge("x", "v0", 7);
+    g.addHandleEdge(old, old, 8);
+    if (g.edgeCount() != 2 || g.weight("v0", "x") != 7 ||
+        g.handleWeight(old, old) != 8 || g.degree("v0") != 1 ||
+        g.handleDegree(old) != 2) {
+      System.out.println("Edges of x are wrong after handle reuse.");
+      problems++;
+    }
+    g.removeHandle(old);
+    if (g.isVertex("x") || g.vertexCount() != 5 || g.degree("v0") != 0 ||
+        g.edgeCount() != 0) {
+      System.out.println("removeHandle() did not remove x.");
+      problems++;
+    }
+    return problems;
+  }
+
+  /**
+   * Removes most of the vertices of a large graph and checks that compact()
+   * lowers handleLimit() past the trailing free handles, without disturbing
+   * the handles, edges or handle reuse of the vertices that remain.
+   */
+  private static int compactTest() {
+    int problems = 0;
+    WUGraph g = new WUGraph();
+    for (int i = 0; i < 1000; i++) {
+      g.addVertex("v" + i);
+    }
+    for (int i = 0; i < 999; i++) {
+      g.addEdge("v" + i, "v" + (i + 1), i);
+    }
+    for (int i = 0; i < 1000; i++) {
+      if (i != 3 && i != 4 && i != 10) {
+        g.removeVertex("v" + i);
+      }
+    }
+    g.addEdge("v4", "v10", 7);
+    g.addEdge("v10", "v10", 8);
+    g.compact();
+    if (g.handleLimit() != 11 || g.vertexCount() != 3 || g.edgeCount() != 3 ||
+        g.handleOf("v3") != 3 || g.handleOf("v10") != 10 ||
+        g.weight("v3", "v4") != 3 || g.weight("v4", "v10") != 7 ||
+        g.handleWeight(10, 10) != 8 || g.getVertices().length != 3) {
+      System.out.println("After compact(), handleLimit() is " +
+                         g.handleLimit() + " (should be 11), or the " +
+                         "remaining vertices or edges changed.");
+      problems++;
+    }
+    java.util.HashSet<Integer> given = new java.util.HashSet<Integer>();
+    for (int i = 0; i < 10; i++) {
+      given.add(g.addVertex("x" + i));
+    }
+    if (given.size() != 10 || given.contains(3) || given.contains(4) ||
+        given.contains(10) || g.handleLimit() != 13 ||
+        g.handleOf("v10") != 10 || g.degree("v10") != 2) {
+      System.out.println("After compact(), new vertices got handles " +
+                         given + ".");
+      problems++;
+    }
+    return problems;
+  }
+
+  public static void main(String[] args) {
+    int score = 3;
+    System.out.println("Running Integer vertex test.");
+    if (integerTest() > 0) {
+      score--;
+    }
+    System.out.println("Running handle reuse test.");
+    if (reuseTest() > 0) {
+      score--;
+    }
+    System.out.println("Running compact() test.");
+    if (compactTest() > 0) {
+      score--;
+    }
+    System.out.println("Your handle test score is " + score + " out of 3.");
+  }
+}
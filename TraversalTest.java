@@ -0,0 +1,298 @@
+/* TraversalTest.java */
+
+/**
+ * The TraversalTest class tests the ways of visiting the neighbors and the
+ * edges of a WUGraph without allocating, by comparing what each one visits
+ * against getNeighbors().
+ */
+
+import graph.*;
+import java.util.*;
+
+public class TraversalTest {
+
+  private static final int VERTICES = 150;
+  private static final int EDGES = 1200;
+
+  /**
+   * Builds a random graph with self-edges, a few high-degree vertices,
+   * removed edges and removed vertices (so some vertex handles are reused).
+   */
+  private static WUGraph makeGraph(Random random) {
+    WUGraph g = new WUGraph();
+    for (int i = 0; i < VERTICES; i++) {
+      g.addVertex("v" + i);
+    }
+    for (int i = 0; i < EDGES; i++) {
+      g.addEdge("v" + random.nextInt(VERTICES), "v" + random.nextInt(VERTICES),
+                random.nextInt(200) - 100);
+    }
+    for (int i = 0; i < VERTICES; i += 5) {
+      g.addEdge("v" + i, "v" + i, random.nextInt(200) - 100);
+    }
+    for (int i = 0; i < 150; i++) {
+      g.removeEdge("v" + random.nextInt(VERTICES), "v" + random.nextInt(VERTICES));
+    }
+    for (int i = 0; i < VERTICES; i += 13) {
+      g.removeVertex("v" + i);
+    }
+    for (int i = 0; i < 6; i++) {
+      g.addVertex("w" + i);
+      g.addEdge("w" + i, "w" + i, i);
+      g.addEdge("w" + i, "v1", i);
+    }
+    g.addVertex("lonely");
+    return g;
+  }
+
+  /**
+   * Returns the neighbors of "vertex" as getNeighbors() lists them, each as
+   * "neighbor=weight", in getNeighbors() order.
+   */
+  private static List<String> expectedNeighbors(WUGraph g, Object vertex) {
+    List<String> list = new ArrayList<String>();
+    Neighbors n = g.getNeighbors(vertex);
+    if (n != null) {
+      for (int j = 0; j < n.neighborList.length; j++) {
+        list.add(n.neighborList[j] + "=" + n.weightList[j]);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Checks that getNeighbors(Object, Neighbors), forEachNeighbor(), a
+   * NeighborCursor reset() by object and by handle, and
+   * forEachHandleNeighbor() each visit exactly the neighbors and weights
+   * getNeighbors() lists, in the same order.  Returns the number of problems
+   * found.
+   */
+  private static int neighborTest(WUGraph g) {
+    int problems = 0;
+    Neighbors reuse = new Neighbors();
+    NeighborCursor cursor = g.neighborCursor();
+    Object[] vertices = g.getVertices();
+    for (int i = 0; i < vertices.length; i++) {
+      final Object vertex = vertices[i];
+      final WUGraph graph = g;
+      List<String> expected = expectedNeighbors(g, vertex);
+
+      List<String> reused = new ArrayList<String>();
+      int count = g.getNeighbors(vertex, reuse);
+      for (int j = 0; j < count; j++) {
+        reused.add(reuse.neighborList[j] + "=" + reuse.weightList[j]);
+      }
+
+      final List<String> consumed = new ArrayList<String>();
+      g.forEachNeighbor(vertex, new NeighborConsumer() {
+        public void accept(Object neighbor, int weight) {
+          consumed.add(neighbor + "=" + weight);
+        }
+      });
+
+      List<String> byObject = new ArrayList<String>();
+      cursor.reset(vertex);
+      while (cursor.next()) {
+        byObject.add(cursor.neighbor() + "=" + cursor.weight());
+      }
+
+      List<String> byHandle = new ArrayList<String>();
+      cursor.resetHandle(g.handleOf(vertex));
+      while (cursor.next()) {
+        byHandle.add(g.vertexOf(cursor.neighborHandle()) + "=" +
+                     cursor.weight());
+      }
+
+      final List<String> handles = new ArrayList<String>();
+      g.forEachHandleNeighbor(g.handleOf(vertex), new IntNeighborConsumer() {
+        public void accept(int neighbor, int weight) {
+          handles.add(graph.vertexOf(neighbor) + "=" + weight);
+        }
+      });
+
+      if (!reused.equals(expected) || !consumed.equals(expected) ||
+          !byObject.equals(expected) || !byHandle.equals(expected) ||
+          !handles.equals(expected) || expected.size() != g.degree(vertex)) {
+        System.out.println("Neighbors of " + vertex + " should be " +
+                           expected + ", but getNeighbors(reuse) gives " +
+                           reused + ", forEachNeighbor() gives " + consumed +
+                           ", the cursor gives " + byObject + " and " +
+                           byHandle + ", and forEachHandleNeighbor() gives " +
+                           handles + ".");
+        problems++;
+      }
+    }
+
+    cursor.reset("nothing");
+    if (cursor.next() || g.getNeighbors("nothing", reuse) != 0) {
+      System.out.println("A vertex not in the graph has neighbors.");
+      problems++;
+    }
+    return problems;
+  }
+
+  /**
+   * Returns the key of the edge between u and v, the same whichever endpoint
+   * comes first.
+   */
+  private static String edgeKey(WUGraph g, Object u, Object v) {
+    return g.handleOf(u) <= g.handleOf(v) ? u + "~" + v : v + "~" + u;
+  }
+
+  /**
+   * Returns every edge of g, built from getNeighbors(), as a map from its
+   * key to its weight.
+   */
+  private static HashMap<String,Integer> expectedEdges(WUGraph g) {
+    HashMap<String,Integer> edges = new HashMap<String,Integer>();
+    Object[] vertices = g.getVertices();
+    for (int i = 0; i < vertices.length; i++) {
+      Neighbors n = g.getNeighbors(vertices[i]);
+      if (n != null) {
+        for (int j = 0; j < n.neighborList.length; j++) {
+          edges.put(edgeKey(g, vertices[i], n.neighborList[j]), n.weightList[j]);
+        }
+      }
+    }
+    return edges;
+  }
+
+  /**
+   * Adds an edge to "visited", and returns 1 (after printing a complaint) if
+   * it has been visited already.
+   */
+  private static int visit(HashMap<String,Integer> visited, String how,
+                           String key, int weight) {
+    if (visited.put(key, weight) != null) {
+      System.out.println(how + " visits " + key + " more than once.");
+      return 1;
+    }
+    return 0;
+  }
+
+  /**
+   * Checks that forEachEdge(EdgeConsumer), edges() and edges().parallel()
+   * each visit every edge of g exactly once, self-edges included, with its
+   * weight.  Returns the number of problems found.
+   */
+  private static int edgeTest(final WUGraph g) {
+    int problems = 0;
+    HashMap<String,Integer> expected = expectedEdges(g);
+    if (expected.size() != g.edgeCount()) {
+      System.out.println("getNeighbors() shows " + expected.size() +
+                         " edges, but edgeCount() returns " + g.edgeCount() +
+                         ".");
+      problems++;
+    }
+
+    final HashMap<String,Integer> consumed = new HashMap<String,Integer>();
+    final int[] repeats = new int[1];
+    g.forEachEdge(new EdgeConsumer() {
+      public void accept(Object u, Object v, int weight) {
+        repeats[0] += visit(consumed, "forEachEdge()", edgeKey(g, u, v), weight);
+      }
+    });
+    problems += repeats[0];
+    if (!consumed.equals(expected)) {
+      System.out.println("forEachEdge() visits " + consumed.size() +
+                         " edges that do not match the " + expected.size() +
+                         " of getNeighbors().");
+      problems++;
+    }
+
+    HashMap<String,Integer> streamed = new HashMap<String,Integer>();
+    Iterator<WeightedEdge> i = g.edges().iterator();
+    while (i.hasNext()) {
+      WeightedEdge e = i.next();
+      problems += visit(streamed, "edges()", edgeKey(g, e.u(), e.v()),
+                        e.weight());
+    }
+    if (!streamed.equals(expected)) {
+      System.out.println("edges() gives " + streamed.size() +
+                         " edges that do not match the " + expected.size() +
+                         " of getNeighbors().");
+      problems++;
+    }
+
+    List<String> parallel = new ArrayList<String>();
+    g.edges().parallel().forEachOrdered(e -> parallel.add(
+        edgeKey(g, e.u(), e.v()) + "=" + e.weight()));
+    if (parallel.size() != expected.size() ||
+        new HashSet<String>(parallel).size() != parallel.size()) {
+      System.out.println("edges().parallel() gives " + parallel.size() +
+                         " edges; should give " + expected.size() + ".");
+      problems++;
+    }
+    return problems;
+  }
+
+  /**
+   * Checks that forEachEdge(from, to, c) over consecutive handle ranges of
+   * several widths (including empty ones and one running past
+   * handleLimit()) partitions the edges of g:  every edge is visited by
+   * exactly one range, the one holding its lower handle.  Returns the number
+   * of problems found.
+   */
+  private static int rangeTest(final WUGraph g) {
+    int problems = 0;
+    HashMap<String,Integer> expected = expectedEdges(g);
+    int[] widths = { 1, 7, 32, g.handleLimit() };
+    for (int w = 0; w < widths.length; w++) {
+      final HashMap<String,Integer> visited = new HashMap<String,Integer>();
+      final int[] bad = new int[1];
+      for (int from = -widths[w]; from < g.handleLimit() + widths[w];
+           from += widths[w]) {
+        final int lo = from;
+        final int hi = from + widths[w];
+        g.forEachEdge(lo, lo, new IntEdgeConsumer() {
+          public void accept(int u, int v, int weight) {
+            bad[0]++;
+          }
+        });
+        g.forEachEdge(lo, hi, new IntEdgeConsumer() {
+          public void accept(int u, int v, int weight) {
+            if (u < lo || u >= hi || v < u) {
+              System.out.println("forEachEdge(" + lo + ", " + hi +
+                                 ") visits the edge between handles " + u +
+                                 " and " + v + ".");
+              bad[0]++;
+            }
+            bad[0] += visit(visited, "forEachEdge(from, to)",
+                            edgeKey(g, g.vertexOf(u), g.vertexOf(v)), weight);
+          }
+        });
+      }
+      problems += bad[0];
+      if (!visited.equals(expected)) {
+        System.out.println("Ranges of width " + widths[w] + " visit " +
+                           visited.size() + " edges that do not match the " +
+                           expected.size() + " of getNeighbors().");
+        problems++;
+      }
+    }
+    return problems;
+  }
+
+  public static void main(String[] args) {
+    int score = 3;
+    Random random = new Random(23);
+    WUGraph g = makeGraph(random);
+
+    System.out.println("Visiting neighbors.");
+    if (neighborTest(g) > 0) {
+      score--;
+    }
+
+    System.out.println("Visiting edges.");
+    if (edgeTest(g) > 0) {
+      score--;
+    }
+
+    System.out.println("Visiting edges by handle range.");
+    if (rangeTest(g) > 0) {
+      score--;
+    }
+
+    System.out.println("Your traversal test score is " + score + " out of 3.");
+  }
+}
@@ -0,0 +1,290 @@
+/* ConcurrentHashTable.java */
+package dict;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import list.*;
+
+/**
+ *  A thread-safe chained hash table using lock striping.
+ *
+ *  find() takes no locks at all:  buckets live in an AtomicReferenceArray and
+ *  chain links and values are volatile, so a reader always sees a
+ *  consistent chain.  insert() and remove() lock only the stripe that owns
+ *  the key's bucket, so writers on different stripes run in parallel.  Each
+ *  stripe keeps its own entry count on a cache line of its own, and an
+ *  insert() adds up all the counts only once its stripe holds more than its
+ *  share of the resize threshold, so writers on different stripes share no
+ *  written memory until the table is nearly due to grow.
+ *
+ *  A resize locks every stripe (so writers wait), builds a new bucket array
+ *  out of fresh nodes, and then publishes it with a single volatile write.
+ *  Readers keep using the old array, whose chains are never modified by the
+ *  resize, until they next read the table field, so they are never blocked.
+ *
+ *  Unlike HashTable, find(), insert() and remove() return values rather than
+ *  Entry objects, since an Entry could not be updated safely from several
+ *  threads.  Null keys and values are not allowed.
+ **/
+
+public class ConcurrentHashTable<T,V> {
+
+  /**
+   *  A chain node.  key and hash never change; value and next are volatile
+   *  so that lock-free readers see writes made under the stripe lock.
+   **/
+  static final class Node<T,V> {
+    final T key;
+    final int hash;
+    volatile V value;
+    volatile Node<T,V> next;
+
+    Node(T key, int hash, V value, Node<T,V> next) {
+      this.key = key;
+      this.hash = hash;
+      this.value = value;
+      this.next = next;
+    }
+  }
+
+  /**
+   *  Stripe i's entry count is counts[(i + 1) * PAD]; the ints between are
+   *  padding that keeps each count on its own 64-byte cache line.
+   **/
+  protected static final int PAD = 16;
+
+  protected volatile AtomicReferenceArray<Node<T,V>> table;
+  protected final ReentrantLock[] locks;
+  protected final AtomicIntegerArray counts;
+
+  /**
+   *  Construct an empty table with 16 lock stripes.
+   *
+   *  @param sizeEstimate the expected number of entries.
+   **/
+  public ConcurrentHashTable(int sizeEstimate) {
+    this(sizeEstimate, 16);
+  }
+
+  /**
+   *  Construct an empty table.
+   *
+   *  @param sizeEstimate the expected number of entries.
+   *  @param concurrencyLevel the expected number of concurrent writers; the
+   *  number of stripes is the next power of two.
+   **/
+  public ConcurrentHashTable(int sizeEstimate, int concurrencyLevel) {
+    int stripes = 1;
+    while (stripes < concurrencyLevel && stripes < (1 << 16)) {
+      stripes <<= 1;
+    }
+    locks = new ReentrantLock[stripes];
+    for (int i = 0; i < stripes; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    counts = new AtomicIntegerArray((stripes + 2) * PAD);
+    int capacity = Math.max(OpenHashTable.tableSizeFor(sizeEstimate), stripes);
+    table = new AtomicReferenceArray<Node<T,V>>(capacity);
+  }
+
+  /**
+   *  Returns the number of entries.  While writers are active this is only
+   *  a snapshot of a moving target.
+   **/
+  public int size() {
+    int total = 0;
+    for (int i = 1; i <= locks.length; i++) {
+      total += counts.get(i * PAD);
+    }
+    return total;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   *  Returns the value for key, or null if absent.  Never blocks.
+   **/
+  public V find(T key) {
+    int h = OpenHashTable.mix(key.hashCode());
+    AtomicReferenceArray<Node<T,V>> tab = table;
+    Node<T,V> n = tab.get(h & (tab.length() - 1));
+    while (n != null) {
+      if (n.hash == h && (n.key == key || n.key.equals(key))) {
+        return n.value;
+      }
+      n = n.next;
+    }
+    return null;
+  }
+
+  /**
+   *  Maps key to value.  Locks only the key's stripe.
+   *
+   *  @return the previous value for key, or null if there was none.
+   **/
+  public V insert(T key, V value) {
+    int h = OpenHashTable.mix(key.hashCode());
+    int stripe = h & (locks.length - 1);
+    boolean grow;
+    locks[stripe].lock();
+    try {
+      // The table cannot be replaced while any stripe lock is held.
+      AtomicReferenceArray<Node<T,V>> tab = table;
+      int idx = h & (tab.length() - 1);
+      Node<T,V> head = tab.get(idx);
+      for (Node<T,V> n = head; n != null; n = n.next) {
+        if (n.hash == h && (n.key == key || n.key.equals(key))) {
+          V old = n.value;
+          n.value = value;
+          return old;
+        }
+      }
+      tab.set(idx, new Node<T,V>(key, h, value, head));
+      int threshold = tab.length() - (tab.length() >>> 2);
+      // Only a stripe over its share of the threshold adds up the others.
+      grow = counts.incrementAndGet((stripe + 1) * PAD) > threshold / locks.length &&
+             size() > threshold;
+    } finally {
+      locks[stripe].unlock();
+    }
+    if (grow) {
+      resize();
+    }
+    return null;
+  }
+
+  /**
+   *  Removes key.  Locks only the key's stripe.  A reader that is already
+   *  standing on the removed node can still follow its next link.
+   *
+   *  @return the removed value, or null if key was absent.
+   **/
+  public V remove(T key) {
+    int h = OpenHashTable.mix(key.hashCode());
+    int stripe = h & (locks.length - 1);
+    locks[stripe].lock();
+    try {
+      AtomicReferenceArray<Node<T,V>> tab = table;
+      int idx = h & (tab.length() - 1);
+      Node<T,V> prev = null;
+      for (Node<T,V> n = tab.get(idx); n != null; prev = n, n = n.next) {
+        if (n.hash == h && (n.key == key || n.key.equals(key))) {
+          if (prev == null) {
+            tab.set(idx, n.next);
+          } else {
+            prev.next = n.next;
+          }
+          counts.decrementAndGet((stripe + 1) * PAD);
+          return n.value;
+        }
+      }
+      return null;
+    } finally {
+      locks[stripe].unlock();
+    }
+  }
+
+  /**
+   *  Doubles the bucket array.  Takes every stripe lock in order, so it
+   *  waits for writers, but readers continue on the old array.
+   **/
+  public void resize() {
+    for (int i = 0; i < locks.length; i++) {
+      locks[i].lock();
+    }
+    try {
+      AtomicReferenceArray<Node<T,V>> old = table;
+      if (size() <= old.length() - (old.length() >>> 2)) {
+        return;                          // another writer already resized
+      }
+      AtomicReferenceArray<Node<T,V>> tab =
+        new AtomicReferenceArray<Node<T,V>>(old.length() * 2);
+      int m = tab.length() - 1;
+      for (int i = 0; i < old.length(); i++) {
+        for (Node<T,V> n = old.get(i); n != null; n = n.next) {
+          int idx = n.hash & m;
+          tab.set(idx, new Node<T,V>(n.key, n.hash, n.value, tab.get(idx)));
+        }
+      }
+      table = tab;
+    } finally {
+      for (int i = locks.length - 1; i >= 0; i--) {
+        locks[i].unlock();
+      }
+    }
+  }
+
+  /**
+   *  Returns a newly built DList of Entries holding the keys and values in
+   *  the table.  Entries inserted or removed during the call may or may not
+   *  appear.
+   **/
+  public DList<Entry<T,V>> entries() {
+    DList<Entry<T,V>> ret = new DList<Entry<T,V>>();
+    AtomicReferenceArray<Node<T,V>> tab = table;
+    for (int i = 0; i < tab.length(); i++) {
+      for (Node<T,V> n = tab.get(i); n != null; n = n.next) {
+        Entry<T,V> e = new Entry<T,V>();
+        e.key = n.key;
+        e.value = n.value;
+        ret.insertBack(e);
+      }
+    }
+    return ret;
+  }
+
+  public String toString() {
+    String ret = "{  ";
+    for (Entry<T,V> curr : entries()) {
+      ret += curr.key().toString() + ":" + curr.value().toString() + "  ";
+    }
+    return ret + "  }";
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    final ConcurrentHashTable<Integer,Integer> test =
+      new ConcurrentHashTable<Integer,Integer>(16);
+    final int perThread = 20000;
+    Thread[] writers = new Thread[4];
+    for (int t = 0; t < writers.length; t++) {
+      final int base = t * perThread;
+      writers[t] = new Thread() {
+        public void run() {
+          for (int i = base; i < base + perThread; i++) {
+            test.insert(i, i);
+            test.find(i / 2);
+          }
+          for (int i = base; i < base + perThread; i += 2) {
+            test.remove(i);
+          }
+        }
+      };
+      writers[t].start();
+    }
+    for (Thread w : writers) {
+      w.join();
+    }
+    boolean ok = test.size() == writers.length * perThread / 2;
+    for (int i = 0; i < writers.length * perThread; i++) {
+      Integer v = test.find(i);
+      ok &= (i % 2 == 0) ? v == null : v != null && v == i;
+    }
+    System.out.println("concurrent insert/find/remove consistent: " + ok);
+
+    ConcurrentHashTable<Integer,Integer> grown =
+      new ConcurrentHashTable<Integer,Integer>(16);
+    ok = true;
+    for (int i = 0; i < 100000; i++) {
+      grown.insert(i, i);
+      // Until a stripe over its share sees the total, the table can run a
+      // few entries past its threshold, but never far.
+      int length = grown.table.length();
+      ok &= grown.size() <= length - (length >>> 2) + grown.locks.length;
+    }
+    ok &= grown.table.length() == 262144;
+    System.out.println("grows at a load of 0.75: " + ok + "  (" +
+                       grown.table.length() + " buckets)");
+  }
+}
@@ -11,10 +11,44 @@ public class HashTable<T,V> {
   protected int large_prime;
   protected DList<Entry<T,V>> entries;
 
+  /**
+   *  Incremental resizing.  When incremental is true, resize() only
+   *  allocates the new bucket array; the old one is kept in oldBuckets and
+   *  migrateStep of its buckets are moved over on every insert() and
+   *  remove(), starting from migrateIndex.  Until the migration is done,
+   *  lookups check the new buckets first and then the old ones.
+   **/
+  protected boolean incremental;
+  protected int migrateStep = 8;
+  protected DList<DListNode<Entry<T,V>>>[] oldBuckets;
+  protected int oldPrime;
+  protected int migrateIndex;
+
+  /**
+   *  Statistics collected while enabled; null when disabled, so the cost of
+   *  leaving instrumentation compiled in is one null check per probe.
+   **/
+  protected HashTableStats stats;
+
+  /**
+   *  Shrinking.  If shrinkLoad is positive, remove() shrinks the table once
+   *  the load factor drops below it, never going below minPrime buckets (the
+   *  size the table was constructed with).  Zero disables shrinking.
+   **/
+  protected double shrinkLoad;
+  protected int minPrime;
+
+  /**
+   *  Node recycling.  If pool is not null, the entries DList and every
+   *  bucket DList share it, so the two nodes freed by each remove() are
+   *  reused by later inserts instead of being garbage.
+   **/
+  protected NodePool pool;
 
 
   public HashTable(int sizeEstimate) {
     prime = next_prime(sizeEstimate);
+    minPrime = prime;
     large_prime = 32452843;
     size = 0;
     buckets = new DList[prime];
@@ -30,6 +64,162 @@ public class HashTable<T,V> {
     return ((double) size)/((double) prime);
   }
 
+  /**
+   *  Turns incremental resizing on or off.  With it on, a resize costs
+   *  O(migrateStep) per operation spread over the following inserts and
+   *  removes instead of one O(n) rehash.  Turning it off finishes any
+   *  migration that is still in progress.
+   *
+   *  @param on true to spread resizes over subsequent operations.
+   **/
+  public void setIncrementalResize(boolean on){
+    incremental = on;
+    if(!on){
+      finishMigration();
+    }
+  }
+
+  /**
+   *  Sets the number of old buckets migrated per insert() or remove() while
+   *  an incremental resize is in progress.  Must be at least 2 so that a
+   *  migration always finishes before the next resize is due.
+   *
+   *  @param buckets the number of buckets to move per operation.
+   **/
+  public void setMigrateStep(int buckets){
+    migrateStep = Math.max(2, buckets);
+  }
+
+  /**
+   *  Sets the load factor below which remove() shrinks the table to half
+   *  load.  The value is capped at 0.4 so that a shrunken table is never
+   *  close to growing again.  Zero (the default) disables shrinking.  In
+   *  incremental mode a shrink is spread over later operations just like a
+   *  growing resize.
+   *
+   *  @param load the minimum load factor to keep, from 0 to 0.4.
+   **/
+  public void setShrinkLoad(double load){
+    shrinkLoad = Math.max(0.0, Math.min(load, 0.4));
+  }
+
+  /**
+   *  Turns node recycling on, keeping up to capacity freed DListNodes for
+   *  reuse, or off if capacity is zero.  While it is on, callers must not
+   *  hold on to nodes of the entries() DList across a remove().
+   *
+   *  @param capacity the most nodes to keep for reuse, or 0 to stop
+   *  recycling.
+   **/
+  public void setNodeRecycling(int capacity){
+    pool = capacity > 0 ? new NodePool(capacity) : null;
+    entries.setNodePool(pool);
+    for(DList<DListNode<Entry<T,V>>> bucket : buckets){
+      if(bucket!=null){
+        bucket.setNodePool(pool);
+      }
+    }
+    if(oldBuckets!=null){
+      for(DList<DListNode<Entry<T,V>>> bucket : oldBuckets){
+        if(bucket!=null){
+          bucket.setNodePool(pool);
+        }
+      }
+    }
+  }
+
+  /**
+   *  Returns the node pool used while node recycling is on, whose counters
+   *  show how many nodes were allocated and reused, or null.
+   **/
+  public NodePool nodePool(){
+    return pool;
+  }
+
+  private DList<DListNode<Entry<T,V>>> newBucket(){
+    DList<DListNode<Entry<T,V>>> bucket = new DList<DListNode<Entry<T,V>>>();
+    bucket.setNodePool(pool);
+    return bucket;
+  }
+
+  /**
+   *  Starts collecting probe and resize statistics.  Does nothing if they
+   *  are already being collected.
+   **/
+  public void enableStats(){
+    if(stats==null){
+      stats = new HashTableStats();
+    }
+  }
+
+  /**
+   *  Stops collecting statistics and discards those collected so far.
+   **/
+  public void disableStats(){
+    stats = null;
+  }
+
+  /**
+   *  Returns the statistics collected since enableStats(), or null if
+   *  statistics are disabled.
+   **/
+  public HashTableStats stats(){
+    return stats;
+  }
+
+  /**
+   *  Returns a histogram of bucket occupancy:  slot i is the number of
+   *  buckets holding exactly i entries.  Buckets still waiting to be
+   *  migrated by an incremental resize are not counted.  Runs in
+   *  O(prime + size) time, whether or not statistics are enabled.
+   *
+   *  @return an array whose length is the longest chain plus one.
+   **/
+  public int[] bucketOccupancy(){
+    int longest = 0;
+    for(DList<DListNode<Entry<T,V>>> bucket : buckets){
+      if(bucket!=null && bucket.length()>longest){
+        longest = bucket.length();
+      }
+    }
+    int[] ret = new int[longest+1];
+    for(DList<DListNode<Entry<T,V>>> bucket : buckets){
+      ret[bucket==null ? 0 : bucket.length()]++;
+    }
+    return ret;
+  }
+
+  /**
+   *  Returns a human-readable report of the table's shape:  size, bucket
+   *  count (and whether it is really prime), load factor, bucket occupancy
+   *  and, if enabled, the collected statistics.
+   **/
+  public String statsReport(){
+    String ret = "size: " + size + "  buckets: " + prime
+      + (is_prime(prime) ? "" : " (not prime)")
+      + "  load factor: " + loadFactor()
+      + (isMigrating() ? "  (resize in progress)" : "") + "\n";
+    int[] occupancy = bucketOccupancy();
+    ret += "bucket occupancy:";
+    for(int i = 0; i < occupancy.length; i++){
+      if(occupancy[i]!=0){
+        ret += "  " + i + ":" + occupancy[i];
+      }
+    }
+    ret += "  (max chain " + (occupancy.length-1) + ")\n";
+    if(stats==null){
+      return ret + "statistics disabled";
+    }
+    return ret + stats;
+  }
+
+  /**
+   *  Returns true while an incremental resize is still migrating buckets.
+   **/
+  public boolean isMigrating(){
+    return oldBuckets != null;
+  }
+
   /**
    *  Converts a hash code in the range Integer.MIN_VALUE...Integer.MAX_VALUE
    *  to a value in the range 0...(size of hash table) - 1.
@@ -39,9 +229,17 @@ public class HashTable<T,V> {
    **/
 
   protected int compFunction(int code) {
+    return compFunction(code, prime);
+  }
+
+  /**
+   *  compFunction() for a bucket array of m buckets.  Used to hash into the
+   *  old bucket array while an incremental resize is in progress.
+   **/
+  protected int compFunction(int code, int m) {
     int a = 123456;
     int b = 234567;
-    return mod(mod(a*code+b,large_prime),prime);
+    return mod(mod(a*code+b,large_prime),m);
   }
 
   /** 
@@ -87,7 +285,13 @@ public class HashTable<T,V> {
    **/
 
   public static boolean is_prime(int num){
-    for(int i = 2; i*i <= num; i+=2){
+    if(num < 2){
+      return false;
+    }
+    if(num%2==0){
+      return num==2;
+    }
+    for(int i = 3; i*i <= num; i+=2){
       if(num%i==0){
         return false;
       }
@@ -119,7 +323,8 @@ public class HashTable<T,V> {
   /**
    *  Create a new Entry object referencing the input key and associated value,
    *  and insert the entry into the dictionary.  Return a reference to the new
-   *  entry.  If the key exists already, the value of the key is updated.
+   *  entry.  If the key exists already, the value of the key is updated in
+   *  place and the existing entry is returned; nothing is allocated.
    *  The entry is also inserted into a DList of all the entries, and it is 
    *  this node that is stored as the value in the HashTable.
    *
@@ -132,36 +337,152 @@ public class HashTable<T,V> {
   
 
   public Entry<T,V> insert(T key, V value) {
+    migrate();
+    DListNode<DListNode<Entry<T,V>>> existing = locate(key);
+
+    if(existing==null){
+      return insertNew(key, value);
+    }
+    Entry<T,V> e = entryOf(existing);
+    e.setValue(value);
+    return e;
+  }
+
+  /**
+   *  Adds an entry for a key known to be absent.
+   **/
+
+  private Entry<T,V> insertNew(T key, V value) {
+    Entry<T,V> current = linkNew(key, value);
+    if(this.loadFactor()>0.9){
+      this.resize();
+    }
+    return current;
+  }
+
+  /**
+   *  insertNew() without the load factor check, for bulk inserts into a
+   *  table that has already been sized.
+   **/
+
+  private Entry<T,V> linkNew(T key, V value) {
     Entry<T,V> current = new Entry<T,V>();
     current.key = key;
     current.value = value;
     int hash = compFunction(key.hashCode());
+    entries.insertFront(current);
+    DListNode<Entry<T,V>> node = entries.front();
+    if(buckets[hash]==null){
+      buckets[hash] = newBucket();
+    }
+    buckets[hash].insertFront(node);
+    size++;
+    return current;
+  }
 
-    if(find(key)==null){
-      entries.insertFront(current);
-      DListNode<Entry<T,V>> node = entries.front();
-      if(buckets[hash]==null){
-        buckets[hash] = new DList<DListNode<Entry<T,V>>>();
-      }
-      buckets[hash].insertFront(node);
-      size++;
-      if(this.loadFactor()>0.9){
-        this.resize();
-      }
+  /**
+   *  Makes sure the table can hold expected entries without resizing.  If
+   *  it can't, the buckets are rebuilt once, at the size resize() would
+   *  eventually reach, so that a following run of inserts triggers no
+   *  rehashing at all.  Finishes any incremental resize in progress first.
+   *
+   *  Runs in O(n) time if the table is rebuilt, O(1) otherwise.
+   *
+   *  @param expected the number of entries the table should hold.
+   **/
+
+  public void ensureCapacity(int expected){
+    if(expected <= 0.9*prime){
+      return;
     }
-    else{
-      try{
-        DListNode<DListNode<Entry<T,V>>> curr = buckets[hash].front();
-        while(curr!=null && curr.item().item().key().equals(key)==false){
-          curr = curr.next();
-        }
-        curr.item().item().setValue(value);
+    finishMigration();
+    long start = stats!=null ? System.nanoTime() : 0;
+    rebucket(next_prime(expected*2));
+    if(stats!=null){
+      stats.recordResize(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   *  Inserts keys[i] with values[i] for every i, sizing the table once up
+   *  front instead of resizing as it fills.  Keys already present (or
+   *  repeated within keys) have their values updated, as with insert().
+   *
+   *  @param keys the keys to insert.
+   *  @param values the values, in the same order as keys.
+   **/
+
+  public void insertAll(T[] keys, V[] values){
+    if(keys.length != values.length){
+      throw new IllegalArgumentException("keys and values differ in length");
+    }
+    ensureCapacity(size + keys.length);
+    finishMigration();
+    for(int i = 0; i < keys.length; i++){
+      DListNode<DListNode<Entry<T,V>>> existing = locate(keys[i]);
+      if(existing==null){
+        linkNew(keys[i], values[i]);
       }
-      catch(InvalidNodeException e){
-        return null;
+      else{
+        entryOf(existing).setValue(values[i]);
       }
     }
-    return current;
+  }
+
+  /**
+   *  Like insertAll(), but skips the duplicate check entirely.  The caller
+   *  guarantees that no key appears twice in keys and that none is already
+   *  in the table; otherwise the table will hold duplicate entries.
+   *
+   *  @param keys the keys to insert, all distinct and absent.
+   *  @param values the values, in the same order as keys.
+   **/
+
+  public void insertAllUnique(T[] keys, V[] values){
+    if(keys.length != values.length){
+      throw new IllegalArgumentException("keys and values differ in length");
+    }
+    ensureCapacity(size + keys.length);
+    finishMigration();
+    for(int i = 0; i < keys.length; i++){
+      linkNew(keys[i], values[i]);
+    }
+  }
+
+  /**
+   *  Upsert:  associates value with key, inserting a new entry if the key is
+   *  absent.  Probes the table once, and allocates only when the key is new.
+   *
+   *  @param key the key by which the entry can be retrieved.
+   *  @param value an arbitrary object.
+   *  @return the previous value associated with key, or null if there was
+   *          none.
+   **/
+
+  public V put(T key, V value) {
+    migrate();
+    DListNode<DListNode<Entry<T,V>>> existing = locate(key);
+    if(existing==null){
+      insertNew(key, value);
+      return null;
+    }
+    Entry<T,V> e = entryOf(existing);
+    V old = e.value();
+    e.setValue(value);
+    return old;
+  }
+
+  /**
+   *  Returns the value associated with key, or null if key is absent.
+   *  Allocates nothing and throws nothing on a miss.
+   *
+   *  @param key the search key.
+   *  @return the value associated with key, or null.
+   **/
+
+  public V get(T key) {
+    DListNode<DListNode<Entry<T,V>>> curr = locate(key);
+    return curr==null ? null : entryOf(curr).value();
   }
 
 
@@ -176,17 +497,176 @@ public class HashTable<T,V> {
 
   /** 
    *  Resizes HashTable to double the size of the previous in O(n) where n
-   *  is the number of entries.
+   *  is the number of entries.  In incremental mode only the new bucket
+   *  array is allocated here, and the entries are moved over by later
+   *  operations (see setIncrementalResize()).
    **/
 
   public void resize(){
-    DList<Entry<T,V>> all_items = this.entries();
-    prime = next_prime(size*2);
-    this.makeEmpty();
-    for(Entry<T,V> k: all_items){
-      this.insert(k.key(),k.value());
+    resizeTo(next_prime(size*2));
+  }
+
+  /**
+   *  Shrinks the bucket array to fit the current number of entries, giving
+   *  back the memory of buckets left empty by removals.  Buckets never drop
+   *  below the size the table was constructed with.  In incremental mode
+   *  the entries are moved over by later operations, as for resize().
+   *
+   *  Runs in O(n) time, or O(1) in incremental mode.
+   **/
+
+  public void compact(){
+    int target = next_prime(Math.max(size*2, minPrime));
+    if(target < prime){
+      resizeTo(target);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void resizeTo(int newPrime){
+    long start = stats!=null ? System.nanoTime() : 0;
+    if(incremental){
+      finishMigration();
+      oldBuckets = buckets;
+      oldPrime = prime;
+      migrateIndex = 0;
+      prime = newPrime;
+      buckets = (DList<DListNode<Entry<T,V>>>[]) new DList<?>[prime];
+    }
+    else{
+      rebucket(newPrime);
+    }
+    if(stats!=null){
+      stats.recordResize(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   *  Replaces the bucket array with one of newPrime buckets and links every
+   *  node of the entries DList into it.  No Entry or entries node is
+   *  reallocated, and no key is compared.
+   **/
+
+  @SuppressWarnings("unchecked")
+  private void rebucket(int newPrime){
+    prime = newPrime;
+    buckets = (DList<DListNode<Entry<T,V>>>[]) new DList<?>[prime];
+    try{
+      for(DListNode<Entry<T,V>> node = entries.front(); node.isValidNode(); node = node.next()){
+        int hash = compFunction(node.item().key().hashCode());
+        if(buckets[hash]==null){
+          buckets[hash] = newBucket();
+        }
+        buckets[hash].insertFront(node);
+      }
+    }
+    catch(InvalidNodeException m){
+      // Not reached:  the loop only touches valid nodes.
+    }
+  }
+
+  /**
+   *  Moves up to migrateStep buckets from oldBuckets into buckets.  Each
+   *  entries node moved gets a new bucket node in buckets; the entries DList
+   *  itself is not touched.
+   **/
+
+  protected void migrate(){
+    if(oldBuckets==null){
+      return;
+    }
+    int end = Math.min(oldPrime, migrateIndex + migrateStep);
+    for(; migrateIndex < end; migrateIndex++){
+      DList<DListNode<Entry<T,V>>> bucket = oldBuckets[migrateIndex];
+      if(bucket==null){
+        continue;
+      }
+      oldBuckets[migrateIndex] = null;
+      for(DListNode<Entry<T,V>> node : bucket){
+        try{
+          int hash = compFunction(node.item().key().hashCode());
+          if(buckets[hash]==null){
+            buckets[hash] = newBucket();
+          }
+          buckets[hash].insertFront(node);
+        }
+        catch(InvalidNodeException e){
+          // Entries in a bucket are always valid nodes of the entries DList.
+        }
+      }
+    }
+    if(migrateIndex >= oldPrime){
+      oldBuckets = null;
+    }
+  }
+
+  /**
+   *  Completes an in-progress incremental resize in O(n).
+   **/
+
+  protected void finishMigration(){
+    while(oldBuckets!=null){
+      migrate();
+    }
+  }
+
+  /**
+   *  Returns the bucket node that references the entry with the given key,
+   *  or null if there is none.  Looks in buckets and, while an incremental
+   *  resize is in progress, in the not yet migrated part of oldBuckets.
+   **/
+
+  protected DListNode<DListNode<Entry<T,V>>> locate(T key){
+    int code = key.hashCode();
+    DListNode<DListNode<Entry<T,V>>> curr = locateIn(buckets[compFunction(code)], key);
+    if(curr==null && oldBuckets!=null){
+      int hash = compFunction(code, oldPrime);
+      if(hash >= migrateIndex){
+        curr = locateIn(oldBuckets[hash], key);
+      }
+    }
+    return curr;
+  }
+
+  private DListNode<DListNode<Entry<T,V>>> locateIn(DList<DListNode<Entry<T,V>>> bucket, T key){
+    if(bucket==null){
+      if(stats!=null){
+        stats.recordProbe(0);
+      }
+      return null;
+    }
+    int probes = 0;
+    DListNode<DListNode<Entry<T,V>>> curr = bucket.front();
+    try{
+      while(curr.isValidNode()){
+        probes++;
+        if(curr.item().item().key().equals(key)){
+          break;
+        }
+        curr = curr.next();
+      }
+    }
+    catch(InvalidNodeException m){
+      // Not reached:  the loop only touches valid nodes.
+    }
+    if(stats!=null){
+      stats.recordProbe(probes);
+    }
+    return curr.isValidNode() ? curr : null;
+  }
+
+  /**
+   *  Returns the Entry referenced by a valid bucket node.
+   **/
+
+  private Entry<T,V> entryOf(DListNode<DListNode<Entry<T,V>>> node){
+    try{
+      return node.item().item();
+    }
+    catch(InvalidNodeException m){
+      // Not reached:  bucket nodes and the entries nodes they hold are valid.
+      return null;
     }
-    
   }
 
   /** 
@@ -202,20 +682,8 @@ public class HashTable<T,V> {
    **/
 
   public Entry<T,V> find(T key) {
-    try{
-      int hash = compFunction(key.hashCode());
-      DListNode<DListNode<Entry<T,V>>> curr = buckets[hash].front();
-      while(curr!=null && curr.item().item().key().equals(key)==false){
-        curr = curr.next();
-      }
-      return curr.item().item();
-    }
-    catch(NullPointerException e){
-      return null;
-    }
-    catch(InvalidNodeException m){
-      return null;
-    }
+    DListNode<DListNode<Entry<T,V>>> curr = locate(key);
+    return curr==null ? null : entryOf(curr);
   }
 
   /** 
@@ -232,33 +700,35 @@ public class HashTable<T,V> {
    */
 
   public Entry<T,V> remove(T key) {
+    migrate();
+    DListNode<DListNode<Entry<T,V>>> curr = locate(key);
+    if(curr==null){
+      return null;
+    }
     try{
-      int hash = compFunction(key.hashCode());
-      DListNode<DListNode<Entry<T,V>>> curr = buckets[hash].front();
-      while(curr!=null && curr.item().item().key().equals(key)==false){
-        curr = curr.next();
-      }
       Entry<T,V> temp = curr.item().item();
       curr.item().remove();
       curr.remove();
       size--;
+      if(shrinkLoad > 0 && oldBuckets==null && loadFactor() < shrinkLoad){
+        compact();
+      }
       return temp;
     }
-    catch(NullPointerException e){
-      return null;
-    }
     catch(InvalidNodeException m){
+      // Not reached:  locate() only returns valid nodes.
       return null;
     }
-
   }
 
   /**
    *  Remove all entries from the dictionary by creating a new buckets array and entries DList.
    */
   public void makeEmpty() {
+    oldBuckets = null;
     buckets = new DList[prime];
     entries = new DList<Entry<T,V>>();
+    entries.setNodePool(pool);
     size = 0;
   }
 
@@ -319,5 +789,127 @@ public class HashTable<T,V> {
     System.out.println(test.entries());
     System.out.println(test);
 
+    HashTable<Integer,Integer> inc = new HashTable<Integer,Integer>(7);
+    inc.setIncrementalResize(true);
+    boolean ok = true;
+    for(int i = 0; i < 10000; i++){
+      inc.insert(i, i);
+      ok &= inc.find(i/2).value() == i/2;
+    }
+    for(int i = 0; i < 10000; i += 3){
+      ok &= inc.remove(i) != null;
+    }
+    for(int i = 0; i < 10000; i++){
+      ok &= (inc.find(i) == null) == (i % 3 == 0);
+    }
+    System.out.println("incremental resize consistent: " + ok);
+    inc.enableStats();
+    for(int i = 0; i < 20000; i++){
+      inc.find(i);
+    }
+    System.out.println(inc.statsReport());
+
+    HashTable<Integer,Integer> bulk = new HashTable<Integer,Integer>(7);
+    Integer[] keys = new Integer[5000];
+    for(int i = 0; i < keys.length; i++){
+      keys[i] = i;
+    }
+    bulk.enableStats();
+    bulk.insertAllUnique(keys, keys);
+    ok = bulk.size() == keys.length && bulk.stats().resizes() == 1;
+    Integer[] values = new Integer[keys.length];
+    for(int i = 0; i < keys.length; i++){
+      values[i] = -i;
+    }
+    bulk.insertAll(keys, values);
+    ok &= bulk.size() == keys.length;
+    for(Integer k : keys){
+      ok &= bulk.get(k) == -k;
+    }
+    System.out.println("bulk insert consistent, one resize per batch: " + ok);
+
+    bulk.setShrinkLoad(0.2);
+    int grown = bulk.prime();
+    for(int i = 100; i < keys.length; i++){
+      bulk.remove(keys[i]);
+    }
+    ok = bulk.size() == 100 && bulk.prime() < grown / 10;
+    for(int i = 0; i < 100; i++){
+      ok &= bulk.get(keys[i]) == -i;
+    }
+    System.out.println("shrinks after mass remove: " + ok + " (" + grown
+                       + " -> " + bulk.prime() + " buckets)");
+
+    // Remove/insert churn with node recycling, checked against a
+    // java.util.HashMap after every step, so that a recycled node that kept
+    // its old key, value or links would show up as a wrong lookup or entry.
+    HashTable<Integer,Integer> churn = new HashTable<Integer,Integer>(7);
+    churn.setNodeRecycling(64);
+    java.util.HashMap<Integer,Integer> ref = new java.util.HashMap<Integer,Integer>();
+    java.util.Random r = new java.util.Random(13);
+    ok = true;
+    for(int step = 0; step < 20000; step++){
+      Integer k = r.nextInt(200);
+      if(r.nextInt(3) == 0){
+        Entry<Integer,Integer> e = churn.remove(k);
+        Integer old = ref.remove(k);
+        ok &= (e == null) ? old == null : e.key().equals(k) && e.value().equals(old);
+        ok &= churn.find(k) == null;
+      }else{
+        Integer v = r.nextInt();
+        churn.put(k, v);
+        ref.put(k, v);
+        ok &= churn.get(k).equals(v);
+      }
+      if(step % 500 == 0){
+        ok &= churn.size() == ref.size();
+        int count = 0;
+        for(Entry<Integer,Integer> e : churn.entries()){
+          ok &= e.value().equals(ref.get(e.key()));
+          count++;
+        }
+        ok &= count == ref.size();
+        for(int i = 0; i < 200; i++){
+          ok &= java.util.Objects.equals(churn.get(i), ref.get(i));
+        }
+      }
+    }
+    ok &= churn.nodePool().reused() > 0;
+    System.out.println("recycled nodes leak no stale keys or values: " + ok);
+    ok = churn.entries().stream().count() == churn.size() &&
+         churn.entries().parallelStream().mapToInt(e -> e.key()).sum() ==
+         ref.keySet().stream().mapToInt(Integer::intValue).sum();
+    System.out.println("entries().stream() sees every entry: " + ok);
+    System.out.println("  " + churn.nodePool());
+
+    // The buckets point into the nodes of entries(), so sorting entries()
+    // must move whole nodes, never items between nodes.
+    HashTable<Integer,Integer> sorted = new HashTable<Integer,Integer>(7);
+    for(int i = 0; i < 20000; i++){
+      sorted.insert(i, -i);
+    }
+    sorted.entries().parallelSort((x, y) -> x.key() % 100 != y.key() % 100
+                                  ? x.key() % 100 - y.key() % 100
+                                  : x.key() - y.key());
+    ok = true;
+    int expect = 0;
+    for(Entry<Integer,Integer> e : sorted.entries()){
+      ok &= e.key() == expect;
+      expect = expect + 100 < 20000 ? expect + 100 : expect % 100 + 1;
+    }
+    sorted.entries().sort((x, y) -> x.key() % 7 - y.key() % 7);
+    for(int i = 0; i < 20000; i++){
+      Entry<Integer,Integer> e = sorted.find(i);
+      ok &= e != null && e.key() == i && e.value() == -i;
+    }
+    for(int i = 0; i < 20000; i += 2){
+      Entry<Integer,Integer> e = sorted.remove(i);
+      ok &= e != null && e.key() == i;
+    }
+    for(int i = 0; i < 20000; i++){
+      ok &= (sorted.find(i) == null) == (i % 2 == 0);
+    }
+    ok &= sorted.size() == 10000 && sorted.entries().length() == 10000;
+    System.out.println("find() and remove() work after sorting entries(): " + ok);
   }
 }
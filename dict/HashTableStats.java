@@ -0,0 +1,120 @@
+/* HashTableStats.java */
+package dict;
+
+/**
+ *  Counters collected by a HashTable while statistics are enabled (see
+ *  HashTable.enableStats()).  A "probe" is one walk of a bucket chain by
+ *  find(), insert() or remove(); its length is the number of entries whose
+ *  keys were compared.  Probe lengths are kept in a histogram whose last
+ *  slot also counts every longer probe.
+ *
+ *  The counters are plain fields with no synchronization, like HashTable.
+ **/
+
+public class HashTableStats {
+
+  public static final int HISTOGRAM_SLOTS = 16;
+
+  protected long probes;
+  protected long comparisons;
+  protected long[] probeHistogram = new long[HISTOGRAM_SLOTS];
+  protected int maxProbe;
+  protected int resizes;
+  protected long resizeNanos;
+  protected long maxResizeNanos;
+
+  void recordProbe(int length) {
+    probes++;
+    comparisons += length;
+    probeHistogram[Math.min(length, HISTOGRAM_SLOTS - 1)]++;
+    if (length > maxProbe) {
+      maxProbe = length;
+    }
+  }
+
+  void recordResize(long nanos) {
+    resizes++;
+    resizeNanos += nanos;
+    if (nanos > maxResizeNanos) {
+      maxResizeNanos = nanos;
+    }
+  }
+
+  /**
+   *  Returns the number of chain walks recorded.
+   **/
+  public long probes() {
+    return probes;
+  }
+
+  /**
+   *  Returns the mean number of key comparisons per chain walk.
+   **/
+  public double meanProbeLength() {
+    return probes == 0 ? 0.0 : ((double) comparisons) / probes;
+  }
+
+  /**
+   *  Returns a copy of the probe length histogram.  Slot i counts walks
+   *  that compared i keys; the last slot counts all longer walks too.
+   **/
+  public long[] probeHistogram() {
+    return probeHistogram.clone();
+  }
+
+  /**
+   *  Returns the longest chain walk recorded.
+   **/
+  public int maxProbeLength() {
+    return maxProbe;
+  }
+
+  /**
+   *  Returns the number of resizes since statistics were enabled.
+   **/
+  public int resizes() {
+    return resizes;
+  }
+
+  /**
+   *  Returns the total time spent in resize(), in nanoseconds.
+   **/
+  public long resizeNanos() {
+    return resizeNanos;
+  }
+
+  /**
+   *  Returns the time taken by the slowest resize(), in nanoseconds.
+   **/
+  public long maxResizeNanos() {
+    return maxResizeNanos;
+  }
+
+  /**
+   *  Zeroes every counter.
+   **/
+  public void reset() {
+    probes = 0;
+    comparisons = 0;
+    probeHistogram = new long[HISTOGRAM_SLOTS];
+    maxProbe = 0;
+    resizes = 0;
+    resizeNanos = 0;
+    maxResizeNanos = 0;
+  }
+
+  public String toString() {
+    String ret = "probes: " + probes + "  mean length: " + meanProbeLength()
+      + "  max length: " + maxProbe + "\n";
+    ret += "probe length histogram:";
+    for (int i = 0; i < HISTOGRAM_SLOTS; i++) {
+      if (probeHistogram[i] != 0) {
+        ret += "  " + i + (i == HISTOGRAM_SLOTS - 1 ? "+" : "") + ":"
+          + probeHistogram[i];
+      }
+    }
+    ret += "\nresizes: " + resizes + "  total ms: " + resizeNanos / 1000000.0
+      + "  max ms: " + maxResizeNanos / 1000000.0;
+    return ret;
+  }
+}
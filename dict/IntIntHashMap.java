@@ -0,0 +1,224 @@
+/* IntIntHashMap.java */
+package dict;
+
+/**
+ *  A hash map from primitive int keys to primitive int values, with no
+ *  boxing and no Entry objects.  Keys and values are stored in two flat
+ *  int arrays and collisions are resolved by linear probing with
+ *  backward-shift deletion, as in OpenHashTable.
+ *
+ *  The key 0 marks an empty slot, so an entry whose key is 0 is kept in
+ *  the hasZeroKey/zeroValue fields instead of the arrays.
+ **/
+
+public class IntIntHashMap {
+
+  protected int[] keys;
+  protected int[] values;
+  protected int mask;
+  protected int size;
+  protected int threshold;
+  protected boolean hasZeroKey;
+  protected int zeroValue;
+
+  /**
+   *  Construct an empty map large enough to hold sizeEstimate entries
+   *  without resizing.
+   **/
+  public IntIntHashMap(int sizeEstimate) {
+    allocate(OpenHashTable.tableSizeFor(sizeEstimate));
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+    threshold = (int) (((long) capacity) * 3 / 4);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   *  Returns the slot holding key (which must not be 0), or
+   *  -(insertion slot) - 1 if absent.
+   **/
+  protected int slotOf(int key) {
+    int[] ks = keys;
+    int m = mask;
+    int i = OpenHashTable.mix(key) & m;
+    int k;
+    while ((k = ks[i]) != 0) {
+      if (k == key) {
+        return i;
+      }
+      i = (i + 1) & m;
+    }
+    return -i - 1;
+  }
+
+  /**
+   *  Maps key to value, replacing any previous value.
+   *
+   *  @return true if key was not already present.
+   **/
+  public boolean put(int key, int value) {
+    if (key == 0) {
+      boolean added = !hasZeroKey;
+      if (added) {
+        hasZeroKey = true;
+        size++;
+      }
+      zeroValue = value;
+      return added;
+    }
+    int slot = slotOf(key);
+    if (slot >= 0) {
+      values[slot] = value;
+      return false;
+    }
+    slot = -slot - 1;
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > threshold) {
+      rehash(keys.length * 2);
+    }
+    return true;
+  }
+
+  /**
+   *  Returns the value for key, or defaultValue if key is absent.
+   **/
+  public int get(int key, int defaultValue) {
+    if (key == 0) {
+      return hasZeroKey ? zeroValue : defaultValue;
+    }
+    int slot = slotOf(key);
+    return slot < 0 ? defaultValue : values[slot];
+  }
+
+  public boolean containsKey(int key) {
+    return key == 0 ? hasZeroKey : slotOf(key) >= 0;
+  }
+
+  /**
+   *  Removes key from the map.
+   *
+   *  @return true if key was present.
+   **/
+  public boolean remove(int key) {
+    if (key == 0) {
+      if (!hasZeroKey) {
+        return false;
+      }
+      hasZeroKey = false;
+      size--;
+      return true;
+    }
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return false;
+    }
+    removeSlot(slot);
+    return true;
+  }
+
+  protected void removeSlot(int i) {
+    int[] ks = keys;
+    int[] vs = values;
+    int m = mask;
+    int j = i;
+    while (true) {
+      j = (j + 1) & m;
+      int k = ks[j];
+      if (k == 0) {
+        break;
+      }
+      int home = OpenHashTable.mix(k) & m;
+      if (((j - home) & m) >= ((j - i) & m)) {
+        ks[i] = k;
+        vs[i] = vs[j];
+        i = j;
+      }
+    }
+    ks[i] = 0;
+    size--;
+  }
+
+  /**
+   *  Returns a new array holding every key in the map.
+   **/
+  public int[] keys() {
+    int[] ret = new int[size];
+    int count = 0;
+    if (hasZeroKey) {
+      count++;
+    }
+    for (int k : keys) {
+      if (k != 0) {
+        ret[count++] = k;
+      }
+    }
+    return ret;
+  }
+
+  protected void rehash(int capacity) {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+    int m = mask;
+    for (int j = 0; j < oldKeys.length; j++) {
+      int k = oldKeys[j];
+      if (k != 0) {
+        int i = OpenHashTable.mix(k) & m;
+        while (keys[i] != 0) {
+          i = (i + 1) & m;
+        }
+        keys[i] = k;
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  /**
+   *  Removes every entry.  The capacity is unchanged.
+   **/
+  public void makeEmpty() {
+    java.util.Arrays.fill(keys, 0);
+    hasZeroKey = false;
+    size = 0;
+  }
+
+  public String toString() {
+    String ret = "{  ";
+    if (hasZeroKey) {
+      ret += "0:" + zeroValue + "  ";
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != 0) {
+        ret += keys[i] + ":" + values[i] + "  ";
+      }
+    }
+    return ret + "  }";
+  }
+
+  public static void main(String[] args) {
+    IntIntHashMap test = new IntIntHashMap(4);
+    for (int i = -500; i < 500; i++) {
+      test.put(i, i * 2);
+    }
+    boolean ok = test.size() == 1000;
+    for (int i = -500; i < 500; i += 2) {
+      ok &= test.remove(i);
+    }
+    for (int i = -500; i < 500; i++) {
+      ok &= test.get(i, 12345) == (i % 2 == 0 ? 12345 : i * 2);
+    }
+    System.out.println("put/get/remove consistent: " + ok);
+  }
+}
@@ -0,0 +1,245 @@
+/* IntObjHashMap.java */
+package dict;
+
+/**
+ *  A hash map from primitive int keys to object values, with no boxing of
+ *  the keys and no Entry objects.  Keys and values are stored in two flat
+ *  arrays and collisions are resolved by linear probing with backward-shift
+ *  deletion, as in OpenHashTable.
+ *
+ *  Null values are not allowed (put() throws NullPointerException):  a null
+ *  value marks an empty slot, so every int, including 0, can be a key.
+ **/
+
+public class IntObjHashMap<V> {
+
+  protected int[] keys;
+  protected Object[] values;
+  protected int mask;
+  protected int size;
+  protected int threshold;
+
+  /**
+   *  Construct an empty map large enough to hold sizeEstimate entries
+   *  without resizing.
+   **/
+  public IntObjHashMap(int sizeEstimate) {
+    allocate(OpenHashTable.tableSizeFor(sizeEstimate));
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+    threshold = (int) (((long) capacity) * 3 / 4);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   *  Returns the number of slots in the table; see keyAt() and valueAt().
+   **/
+  public int capacity() {
+    return keys.length;
+  }
+
+  /**
+   *  Returns the slot holding key, or -(insertion slot) - 1 if absent.
+   **/
+  protected int slotOf(int key) {
+    int[] ks = keys;
+    Object[] vs = values;
+    int m = mask;
+    int i = OpenHashTable.mix(key) & m;
+    while (vs[i] != null) {
+      if (ks[i] == key) {
+        return i;
+      }
+      i = (i + 1) & m;
+    }
+    return -i - 1;
+  }
+
+  /**
+   *  Maps key to value, replacing any previous value.
+   *
+   *  @param value the value; must not be null.
+   *  @return the previous value for key, or null if there was none.
+   *  @throws NullPointerException if value is null.
+   **/
+  @SuppressWarnings("unchecked")
+  public V put(int key, V value) {
+    if (value == null) {
+      throw new NullPointerException("null values are not allowed");
+    }
+    int slot = slotOf(key);
+    if (slot >= 0) {
+      V old = (V) values[slot];
+      values[slot] = value;
+      return old;
+    }
+    slot = -slot - 1;
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > threshold) {
+      rehash(keys.length * 2);
+    }
+    return null;
+  }
+
+  /**
+   *  Returns the value for key, or null if key is absent.
+   **/
+  @SuppressWarnings("unchecked")
+  public V get(int key) {
+    int slot = slotOf(key);
+    return slot < 0 ? null : (V) values[slot];
+  }
+
+  public boolean containsKey(int key) {
+    return slotOf(key) >= 0;
+  }
+
+  /**
+   *  Removes key from the map.
+   *
+   *  @return the value key had, or null if key was absent.
+   **/
+  @SuppressWarnings("unchecked")
+  public V remove(int key) {
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return null;
+    }
+    V old = (V) values[slot];
+    removeSlot(slot);
+    return old;
+  }
+
+  protected void removeSlot(int i) {
+    int[] ks = keys;
+    Object[] vs = values;
+    int m = mask;
+    int j = i;
+    while (true) {
+      j = (j + 1) & m;
+      if (vs[j] == null) {
+        break;
+      }
+      int k = ks[j];
+      int home = OpenHashTable.mix(k) & m;
+      if (((j - home) & m) >= ((j - i) & m)) {
+        ks[i] = k;
+        vs[i] = vs[j];
+        i = j;
+      }
+    }
+    vs[i] = null;
+    size--;
+  }
+
+  /**
+   *  Returns the key stored in the given slot.  Meaningful only if
+   *  valueAt() of the same slot is not null.
+   **/
+  public int keyAt(int slot) {
+    return keys[slot];
+  }
+
+  /**
+   *  Returns the value stored in the given slot, or null if the slot is
+   *  empty.  Together with capacity() and keyAt() this allows
+   *  allocation-free iteration; the map must not be modified while
+   *  iterating.
+   **/
+  @SuppressWarnings("unchecked")
+  public V valueAt(int slot) {
+    return (V) values[slot];
+  }
+
+  /**
+   *  Makes sure the map can hold expected entries without resizing.
+   **/
+  public void ensureCapacity(int expected) {
+    if (expected > threshold) {
+      rehash(OpenHashTable.tableSizeFor(expected));
+    }
+  }
+
+  /**
+   *  Shrinks the table to the smallest capacity that holds the current
+   *  entries.
+   **/
+  public void compact() {
+    int capacity = OpenHashTable.tableSizeFor(size);
+    if (capacity < keys.length) {
+      rehash(capacity);
+    }
+  }
+
+  protected void rehash(int capacity) {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+    int m = mask;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldValues[j] != null) {
+        int k = oldKeys[j];
+        int i = OpenHashTable.mix(k) & m;
+        while (values[i] != null) {
+          i = (i + 1) & m;
+        }
+        keys[i] = k;
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  /**
+   *  Removes every entry.  The capacity is unchanged.
+   **/
+  public void makeEmpty() {
+    java.util.Arrays.fill(values, null);
+    size = 0;
+  }
+
+  public String toString() {
+    String ret = "{  ";
+    for (int i = 0; i < keys.length; i++) {
+      if (values[i] != null) {
+        ret += keys[i] + ":" + values[i] + "  ";
+      }
+    }
+    return ret + "  }";
+  }
+
+  public static void main(String[] args) {
+    IntObjHashMap<String> test = new IntObjHashMap<String>(4);
+    for (int i = -500; i < 500; i++) {
+      test.put(i, "v" + i);
+    }
+    boolean ok = test.size() == 1000;
+    for (int i = -500; i < 500; i += 2) {
+      ok &= ("v" + i).equals(test.remove(i));
+    }
+    for (int i = -500; i < 500; i++) {
+      ok &= (i % 2 == 0) ? test.get(i) == null : ("v" + i).equals(test.get(i));
+    }
+    test.compact();
+    ok &= test.size() == 500 && test.capacity() == 1024;
+    System.out.println("put/get/remove consistent: " + ok);
+    try {
+      test.put(1, null);
+      System.out.println("put() of a null value should throw, but didn't.");
+    } catch (NullPointerException e) {
+      ok = test.size() == 500 && "v1".equals(test.get(1));
+      System.out.println("put() of a null value threw, map unchanged: " + ok);
+    }
+  }
+}
@@ -0,0 +1,257 @@
+/* LongIntHashMap.java */
+package dict;
+
+/**
+ *  A hash map from primitive long keys to primitive int values, with no
+ *  boxing and no Entry objects.  Keys and values are stored in a flat
+ *  long array and a flat int array, and collisions are resolved by linear
+ *  probing with backward-shift deletion, as in OpenHashTable.
+ *
+ *  The key 0 marks an empty slot, so an entry whose key is 0 is kept in
+ *  the hasZeroKey/zeroValue fields instead of the arrays.
+ **/
+
+public class LongIntHashMap {
+
+  protected long[] keys;
+  protected int[] values;
+  protected int mask;
+  protected int size;
+  protected int threshold;
+  protected boolean hasZeroKey;
+  protected int zeroValue;
+
+  /**
+   *  Construct an empty map large enough to hold sizeEstimate entries
+   *  without resizing.
+   **/
+  public LongIntHashMap(int sizeEstimate) {
+    allocate(OpenHashTable.tableSizeFor(sizeEstimate));
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+    threshold = (int) (((long) capacity) * 3 / 4);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   *  Mixes all 64 bits of a long key into an int hash (the 64-bit finalizer
+   *  of MurmurHash3).  Folding the halves together first would send packed
+   *  pairs such as pack(i, i + 1) to only a few distinct hashes.
+   **/
+  public static int hash(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+
+  /**
+   *  Packs two ints into one long key, a in the high half and b in the low.
+   **/
+  public static long pack(int a, int b) {
+    return (((long) a) << 32) | (b & 0xffffffffL);
+  }
+
+  /**
+   *  Returns the slot holding key (which must not be 0), or
+   *  -(insertion slot) - 1 if absent.
+   **/
+  protected int slotOf(long key) {
+    long[] ks = keys;
+    int m = mask;
+    int i = hash(key) & m;
+    long k;
+    while ((k = ks[i]) != 0) {
+      if (k == key) {
+        return i;
+      }
+      i = (i + 1) & m;
+    }
+    return -i - 1;
+  }
+
+  /**
+   *  Maps key to value, replacing any previous value.
+   *
+   *  @return true if key was not already present.
+   **/
+  public boolean put(long key, int value) {
+    if (key == 0) {
+      boolean added = !hasZeroKey;
+      if (added) {
+        hasZeroKey = true;
+        size++;
+      }
+      zeroValue = value;
+      return added;
+    }
+    int slot = slotOf(key);
+    if (slot >= 0) {
+      values[slot] = value;
+      return false;
+    }
+    slot = -slot - 1;
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > threshold) {
+      rehash(keys.length * 2);
+    }
+    return true;
+  }
+
+  /**
+   *  Returns the value for key, or defaultValue if key is absent.
+   **/
+  public int get(long key, int defaultValue) {
+    if (key == 0) {
+      return hasZeroKey ? zeroValue : defaultValue;
+    }
+    int slot = slotOf(key);
+    return slot < 0 ? defaultValue : values[slot];
+  }
+
+  public boolean containsKey(long key) {
+    return key == 0 ? hasZeroKey : slotOf(key) >= 0;
+  }
+
+  /**
+   *  Removes key from the map.
+   *
+   *  @return true if key was present.
+   **/
+  public boolean remove(long key) {
+    if (key == 0) {
+      if (!hasZeroKey) {
+        return false;
+      }
+      hasZeroKey = false;
+      size--;
+      return true;
+    }
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return false;
+    }
+    removeSlot(slot);
+    return true;
+  }
+
+  protected void removeSlot(int i) {
+    long[] ks = keys;
+    int[] vs = values;
+    int m = mask;
+    int j = i;
+    while (true) {
+      j = (j + 1) & m;
+      long k = ks[j];
+      if (k == 0) {
+        break;
+      }
+      int home = hash(k) & m;
+      if (((j - home) & m) >= ((j - i) & m)) {
+        ks[i] = k;
+        vs[i] = vs[j];
+        i = j;
+      }
+    }
+    ks[i] = 0;
+    size--;
+  }
+
+  /**
+   *  Returns a new array holding every key in the map.
+   **/
+  public long[] keys() {
+    long[] ret = new long[size];
+    int count = 0;
+    if (hasZeroKey) {
+      count++;
+    }
+    for (long k : keys) {
+      if (k != 0) {
+        ret[count++] = k;
+      }
+    }
+    return ret;
+  }
+
+  protected void rehash(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+    int m = mask;
+    for (int j = 0; j < oldKeys.length; j++) {
+      long k = oldKeys[j];
+      if (k != 0) {
+        int i = hash(k) & m;
+        while (keys[i] != 0) {
+          i = (i + 1) & m;
+        }
+        keys[i] = k;
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  /**
+   *  Removes every entry.  The capacity is unchanged.
+   **/
+  public void makeEmpty() {
+    java.util.Arrays.fill(keys, 0);
+    hasZeroKey = false;
+    size = 0;
+  }
+
+  public String toString() {
+    String ret = "{  ";
+    if (hasZeroKey) {
+      ret += "0:" + zeroValue + "  ";
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != 0) {
+        ret += keys[i] + ":" + values[i] + "  ";
+      }
+    }
+    return ret + "  }";
+  }
+
+  public static void main(String[] args) {
+    LongIntHashMap test = new LongIntHashMap(4);
+    for (int i = -500; i < 500; i++) {
+      test.put(i * 0x100000001L, i * 2);
+    }
+    boolean ok = test.size() == 1000;
+    for (int i = -500; i < 500; i += 2) {
+      ok &= test.remove(i * 0x100000001L);
+    }
+    for (int i = -500; i < 500; i++) {
+      ok &= test.get(i * 0x100000001L, 12345) == (i % 2 == 0 ? 12345 : i * 2);
+    }
+    System.out.println("put/get/remove consistent: " + ok);
+
+    // Packed pairs that differ in only a few bits between their halves.
+    LongIntHashMap pairs = new LongIntHashMap(4);
+    for (int i = 0; i < 100000; i++) {
+      pairs.put(pack(i, i + 1), i);
+    }
+    ok = pairs.size() == 100000;
+    for (int i = 0; i < 100000; i++) {
+      ok &= pairs.get(pack(i, i + 1), -1) == i;
+      ok &= !pairs.containsKey(pack(i + 1, i));
+    }
+    System.out.println("pack(i, i + 1) keys all found: " + ok);
+  }
+}
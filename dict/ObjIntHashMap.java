@@ -0,0 +1,250 @@
+/* ObjIntHashMap.java */
+package dict;
+
+/**
+ *  A hash map from object keys to primitive int values.  Values are stored
+ *  unboxed in an int[] alongside a flat key array, and no Entry objects are
+ *  created, so put(), get() and remove() allocate nothing unless the table
+ *  has to grow.  Collisions are resolved by linear probing with
+ *  backward-shift deletion, as in OpenHashTable.  Null keys are not allowed.
+ **/
+
+public class ObjIntHashMap<K> {
+
+  protected Object[] keys;
+  protected int[] values;
+  protected int mask;
+  protected int size;
+  protected int threshold;
+
+  /**
+   *  Construct an empty map large enough to hold sizeEstimate entries
+   *  without resizing.
+   **/
+  public ObjIntHashMap(int sizeEstimate) {
+    allocate(OpenHashTable.tableSizeFor(sizeEstimate));
+  }
+
+  private void allocate(int capacity) {
+    keys = new Object[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+    threshold = (int) (((long) capacity) * 3 / 4);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   *  Returns the number of slots in the table; see keyAt() and valueAt().
+   **/
+  public int capacity() {
+    return keys.length;
+  }
+
+  /**
+   *  Returns the slot holding key, or -(insertion slot) - 1 if absent.
+   **/
+  protected int slotOf(Object key) {
+    Object[] ks = keys;
+    int m = mask;
+    int i = OpenHashTable.mix(key.hashCode()) & m;
+    Object k;
+    while ((k = ks[i]) != null) {
+      if (k == key || k.equals(key)) {
+        return i;
+      }
+      i = (i + 1) & m;
+    }
+    return -i - 1;
+  }
+
+  /**
+   *  Maps key to value, replacing any previous value.
+   *
+   *  @return true if key was not already present.
+   **/
+  public boolean put(K key, int value) {
+    int slot = slotOf(key);
+    if (slot >= 0) {
+      values[slot] = value;
+      return false;
+    }
+    slot = -slot - 1;
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > threshold) {
+      rehash(keys.length * 2);
+    }
+    return true;
+  }
+
+  /**
+   *  Returns the value for key, or defaultValue if key is absent.
+   **/
+  public int get(Object key, int defaultValue) {
+    int slot = slotOf(key);
+    return slot < 0 ? defaultValue : values[slot];
+  }
+
+  public boolean containsKey(Object key) {
+    return slotOf(key) >= 0;
+  }
+
+  /**
+   *  Removes key from the map.
+   *
+   *  @return true if key was present.
+   **/
+  public boolean remove(Object key) {
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return false;
+    }
+    removeSlot(slot);
+    return true;
+  }
+
+  protected void removeSlot(int i) {
+    Object[] ks = keys;
+    int[] vs = values;
+    int m = mask;
+    int j = i;
+    while (true) {
+      j = (j + 1) & m;
+      Object k = ks[j];
+      if (k == null) {
+        break;
+      }
+      int home = OpenHashTable.mix(k.hashCode()) & m;
+      if (((j - home) & m) >= ((j - i) & m)) {
+        ks[i] = k;
+        vs[i] = vs[j];
+        i = j;
+      }
+    }
+    ks[i] = null;
+    size--;
+  }
+
+  /**
+   *  Returns the key in the given slot, or null if the slot is empty.
+   **/
+  @SuppressWarnings("unchecked")
+  public K keyAt(int slot) {
+    return (K) keys[slot];
+  }
+
+  /**
+   *  Returns the value in the given slot.  Meaningless if the slot is empty.
+   **/
+  public int valueAt(int slot) {
+    return values[slot];
+  }
+
+  /**
+   *  Returns a Spliterator over the indices of the occupied slots, for use
+   *  with keyAt() and valueAt() in streams.  It splits by halving the slot
+   *  range, so parallel streams spread evenly over the table.  The table
+   *  must not be modified while it is being traversed.
+   **/
+  public java.util.Spliterator.OfInt slots() {
+    return new SlotSpliterator(keys, size);
+  }
+
+  /**
+   *  Makes sure the table can hold expected entries without resizing,
+   *  rehashing once now if it can't.
+   **/
+  public void ensureCapacity(int expected) {
+    if (expected > threshold) {
+      rehash(OpenHashTable.tableSizeFor(expected));
+    }
+  }
+
+  /**
+   *  Shrinks the table to the smallest capacity that holds the current
+   *  entries, giving back the memory of slots emptied by removals.  Runs in
+   *  O(capacity) time if the table shrinks.
+   **/
+  public void compact() {
+    int capacity = OpenHashTable.tableSizeFor(size);
+    if (capacity < keys.length) {
+      rehash(capacity);
+    }
+  }
+
+  protected void rehash(int capacity) {
+    Object[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+    int m = mask;
+    for (int j = 0; j < oldKeys.length; j++) {
+      Object k = oldKeys[j];
+      if (k != null) {
+        int i = OpenHashTable.mix(k.hashCode()) & m;
+        while (keys[i] != null) {
+          i = (i + 1) & m;
+        }
+        keys[i] = k;
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  /**
+   *  Removes every entry.  The capacity is unchanged.
+   **/
+  public void makeEmpty() {
+    java.util.Arrays.fill(keys, null);
+    size = 0;
+  }
+
+  public String toString() {
+    String ret = "{  ";
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null) {
+        ret += keys[i].toString() + ":" + values[i] + "  ";
+      }
+    }
+    return ret + "  }";
+  }
+
+  public static void main(String[] args) {
+    ObjIntHashMap<String> test = new ObjIntHashMap<String>(4);
+    for (int i = -500; i < 500; i++) {
+      test.put("k" + i, i * 2);
+    }
+    boolean ok = test.size() == 1000 && !test.put("k0", 7) &&
+                 test.get("k0", -1) == 7 && test.size() == 1000;
+    test.put("k0", 0);
+    for (int i = -500; i < 500; i += 2) {
+      ok &= test.remove("k" + i);
+    }
+    ok &= !test.remove("k0");
+    for (int i = -500; i < 500; i++) {
+      ok &= test.get("k" + i, 12345) == (i % 2 == 0 ? 12345 : i * 2);
+      ok &= test.containsKey("k" + i) == (i % 2 != 0);
+    }
+    int count = 0;
+    java.util.Spliterator.OfInt slots = test.slots();
+    while (slots.tryAdvance((int s) -> { })) {
+      count++;
+    }
+    ok &= count == 500;
+    test.compact();
+    ok &= test.size() == 500 && test.capacity() == 1024;
+    for (int i = -499; i < 500; i += 2) {
+      ok &= test.get("k" + i, 12345) == i * 2;
+    }
+    System.out.println("put/get/remove consistent: " + ok);
+    test.makeEmpty();
+    ok = test.isEmpty() && !test.containsKey("k1") && test.put("k1", 1);
+    System.out.println("makeEmpty() empties the map: " + ok);
+  }
+}
@@ -0,0 +1,310 @@
+/* OffHeapLongIntHashMap.java */
+package dict;
+import java.lang.reflect.Field;
+import sun.misc.Unsafe;
+
+/**
+ *  A hash map from primitive long keys to primitive int values whose slots
+ *  live outside the Java heap, in native memory taken directly from the
+ *  operating system.  The garbage collector sees only the map object itself
+ *  no matter how many entries the map holds, so very large vertex-index or
+ *  edge-weight tables add nothing to GC marking time, and (unlike direct
+ *  ByteBuffers) they do not count against -XX:MaxDirectMemorySize.
+ *
+ *  The layout and algorithms are those of LongIntHashMap:  linear probing
+ *  with backward-shift deletion, key 0 marking an empty slot (an entry
+ *  whose key is 0 is kept on the heap in hasZeroKey/zeroValue), and a
+ *  power-of-two capacity that doubles past a load factor of 0.75, up to
+ *  MAX_CAPACITY slots.  A map at MAX_CAPACITY fills up to all but one slot,
+ *  and put() of a new key then throws IllegalStateException.
+ *
+ *  Native memory is freed as soon as it is no longer needed:  the old
+ *  tables right after each rehash, and the current ones in close().  Any
+ *  later call except close() throws IllegalStateException.  A map that is
+ *  never closed leaks its native memory.  Not thread-safe.
+ **/
+
+public class OffHeapLongIntHashMap implements AutoCloseable {
+
+  public static final int MAX_CAPACITY = 1 << 30;
+
+  private static final Unsafe UNSAFE;
+  static {
+    try {
+      Field f = Unsafe.class.getDeclaredField("theUnsafe");
+      f.setAccessible(true);
+      UNSAFE = (Unsafe) f.get(null);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  protected long keys;                 // address of mask + 1 longs, or 0
+  protected long values;               // address of mask + 1 ints
+  protected int mask;
+  protected int size;
+  protected int threshold;
+  protected boolean hasZeroKey;
+  protected int zeroValue;
+
+  /**
+   *  Construct an empty map large enough to hold sizeEstimate entries
+   *  without resizing.
+   **/
+  public OffHeapLongIntHashMap(int sizeEstimate) {
+    allocate(OpenHashTable.tableSizeFor(sizeEstimate));
+  }
+
+  private void allocate(int capacity) {
+    long k = UNSAFE.allocateMemory(8L * capacity);
+    long v;
+    try {
+      v = UNSAFE.allocateMemory(4L * capacity);
+    } catch (OutOfMemoryError e) {
+      UNSAFE.freeMemory(k);
+      throw e;
+    }
+    UNSAFE.setMemory(k, 8L * capacity, (byte) 0);
+    keys = k;
+    values = v;
+    mask = capacity - 1;
+    threshold = (int) (((long) capacity) * 3 / 4);
+  }
+
+  private long keyAt(int slot) {
+    return UNSAFE.getLong(keys + ((long) slot << 3));
+  }
+
+  private void setKey(int slot, long key) {
+    UNSAFE.putLong(keys + ((long) slot << 3), key);
+  }
+
+  private int valueAt(int slot) {
+    return UNSAFE.getInt(values + ((long) slot << 2));
+  }
+
+  private void setValue(int slot, int value) {
+    UNSAFE.putInt(values + ((long) slot << 2), value);
+  }
+
+  private void checkOpen() {
+    if (keys == 0) {
+      throw new IllegalStateException("map is closed");
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   *  Returns the number of bytes of native memory held by the map.
+   **/
+  public long offHeapBytes() {
+    return keys == 0 ? 0 : 12L * (mask + 1);
+  }
+
+  /**
+   *  Returns the slot holding key (which must not be 0), or
+   *  -(insertion slot) - 1 if absent.
+   **/
+  protected int slotOf(long key) {
+    int m = mask;
+    int i = LongIntHashMap.hash(key) & m;
+    long k;
+    while ((k = keyAt(i)) != 0) {
+      if (k == key) {
+        return i;
+      }
+      i = (i + 1) & m;
+    }
+    return -i - 1;
+  }
+
+  /**
+   *  Maps key to value, replacing any previous value.
+   *
+   *  @return true if key was not already present.
+   **/
+  public boolean put(long key, int value) {
+    checkOpen();
+    if (key == 0) {
+      boolean added = !hasZeroKey;
+      if (added) {
+        hasZeroKey = true;
+        size++;
+      }
+      zeroValue = value;
+      return added;
+    }
+    int slot = slotOf(key);
+    if (slot >= 0) {
+      setValue(slot, value);
+      return false;
+    }
+    if (size >= mask) {
+      // Only at MAX_CAPACITY; probing needs at least one empty slot.
+      throw new IllegalStateException("map is full");
+    }
+    slot = -slot - 1;
+    setKey(slot, key);
+    setValue(slot, value);
+    if (++size > threshold) {
+      if (mask + 1 < MAX_CAPACITY) {
+        rehash((mask + 1) * 2);
+      } else {
+        threshold = mask;
+      }
+    }
+    return true;
+  }
+
+  /**
+   *  Returns the value for key, or defaultValue if key is absent.
+   **/
+  public int get(long key, int defaultValue) {
+    checkOpen();
+    if (key == 0) {
+      return hasZeroKey ? zeroValue : defaultValue;
+    }
+    int slot = slotOf(key);
+    return slot < 0 ? defaultValue : valueAt(slot);
+  }
+
+  public boolean containsKey(long key) {
+    checkOpen();
+    return key == 0 ? hasZeroKey : slotOf(key) >= 0;
+  }
+
+  /**
+   *  Removes key from the map.
+   *
+   *  @return true if key was present.
+   **/
+  public boolean remove(long key) {
+    checkOpen();
+    if (key == 0) {
+      if (!hasZeroKey) {
+        return false;
+      }
+      hasZeroKey = false;
+      size--;
+      return true;
+    }
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return false;
+    }
+    removeSlot(slot);
+    return true;
+  }
+
+  protected void removeSlot(int i) {
+    int m = mask;
+    int j = i;
+    while (true) {
+      j = (j + 1) & m;
+      long k = keyAt(j);
+      if (k == 0) {
+        break;
+      }
+      int home = LongIntHashMap.hash(k) & m;
+      if (((j - home) & m) >= ((j - i) & m)) {
+        setKey(i, k);
+        setValue(i, valueAt(j));
+        i = j;
+      }
+    }
+    setKey(i, 0);
+    size--;
+  }
+
+  /**
+   *  Moves every entry into new tables of the given capacity, and frees the
+   *  old tables.
+   **/
+  protected void rehash(int capacity) {
+    long oldKeys = keys;
+    long oldValues = values;
+    int oldCapacity = mask + 1;
+    allocate(capacity);
+    int m = mask;
+    for (int j = 0; j < oldCapacity; j++) {
+      long k = UNSAFE.getLong(oldKeys + ((long) j << 3));
+      if (k != 0) {
+        int i = LongIntHashMap.hash(k) & m;
+        while (keyAt(i) != 0) {
+          i = (i + 1) & m;
+        }
+        setKey(i, k);
+        setValue(i, UNSAFE.getInt(oldValues + ((long) j << 2)));
+      }
+    }
+    UNSAFE.freeMemory(oldKeys);
+    UNSAFE.freeMemory(oldValues);
+  }
+
+  /**
+   *  Removes every entry.  The capacity is unchanged.
+   **/
+  public void makeEmpty() {
+    checkOpen();
+    UNSAFE.setMemory(keys, 8L * (mask + 1), (byte) 0);
+    hasZeroKey = false;
+    size = 0;
+  }
+
+  /**
+   *  Frees the map's native memory.  Calling close() more than once is
+   *  harmless.
+   **/
+  public void close() {
+    if (keys != 0) {
+      UNSAFE.freeMemory(keys);
+      UNSAFE.freeMemory(values);
+      keys = 0;
+      values = 0;
+    }
+    size = 0;
+    hasZeroKey = false;
+  }
+
+  public static void main(String[] args) {
+    OffHeapLongIntHashMap test = new OffHeapLongIntHashMap(4);
+    int n = 3000000;
+    for (int i = 0; i < n; i++) {
+      test.put(LongIntHashMap.pack(i, i + 1), i);
+    }
+    boolean ok = test.size() == n;
+    for (int i = 0; i < n; i += 2) {
+      ok &= test.remove(LongIntHashMap.pack(i, i + 1));
+    }
+    for (int i = 0; i < n; i++) {
+      ok &= test.get(LongIntHashMap.pack(i, i + 1), -1) == (i % 2 == 0 ? -1 : i);
+    }
+    System.out.println("put/get/remove consistent: " + ok + "  (" +
+                       test.offHeapBytes() / (1 << 20) + "MB off heap)");
+    long bytes = test.offHeapBytes();
+    test.makeEmpty();
+    ok = test.isEmpty() && test.offHeapBytes() == bytes;
+    for (int i = 0; i < n; i++) {
+      ok &= !test.containsKey(LongIntHashMap.pack(i, i + 1));
+    }
+    ok &= test.put(0, 5) && test.get(0, -1) == 5 && test.size() == 1;
+    System.out.println("makeEmpty() clears every slot: " + ok);
+    test.close();
+    test.close();
+    ok = test.offHeapBytes() == 0 && test.size() == 0;
+    System.out.println("close() frees the native memory: " + ok);
+    try {
+      test.get(1, 0);
+      System.out.println("get() after close() should throw, but didn't.");
+    } catch (IllegalStateException e) {
+      System.out.println("get() after close() threw, as it should.");
+    }
+  }
+}
@@ -0,0 +1,434 @@
+/* OpenHashTable.java */
+package dict;
+import list.*;
+
+/**
+ *  An open-addressing hash table with the same insert/find/remove/entries
+ *  contract as HashTable.  Keys and values live in two flat arrays and
+ *  collisions are resolved by linear probing, so a lookup walks a run of
+ *  adjacent array slots instead of a bucket DList of DListNodes of Entries.
+ *  Removal uses backward-shift deletion, so no tombstones are left behind
+ *  and probe runs never get longer because of deletes.
+ *
+ *  The capacity is always a power of two and the table doubles once the
+ *  load factor passes 0.75.  Null keys are not allowed.
+ *
+ *  Entry objects are not stored; find(), insert() and remove() return a
+ *  fresh Entry holding a copy of the key and value.  Callers that only need
+ *  the value should use get() or containsKey(), which allocate nothing.
+ **/
+
+public class OpenHashTable<T,V> {
+
+  protected Object[] keys;
+  protected Object[] values;
+  protected int mask;
+  protected int size;
+  protected int threshold;
+
+  /**
+   *  Construct a new, empty table large enough to hold sizeEstimate entries
+   *  without resizing.
+   *
+   *  @param sizeEstimate the expected number of entries.
+   **/
+  public OpenHashTable(int sizeEstimate) {
+    allocate(tableSizeFor(sizeEstimate));
+  }
+
+  /**
+   *  Returns the smallest power of two whose 0.75 load holds num entries.
+   *
+   *  @param num the number of entries to hold.
+   *  @return a power of two, at least 2.
+   **/
+  public static int tableSizeFor(int num) {
+    long needed = ((long) Math.max(num, 1)) * 4 / 3 + 1;
+    int cap = 2;
+    while (cap < needed && cap < (1 << 30)) {
+      cap <<= 1;
+    }
+    return cap;
+  }
+
+  /**
+   *  Spreads a hash code so that its low bits, which are the only ones a
+   *  power-of-two table looks at, depend on every bit of the input.
+   *  (This is the finalizer of MurmurHash3.)
+   *
+   *  @param h a hash code.
+   *  @return the mixed hash code.
+   **/
+  public static int mix(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  private void allocate(int capacity) {
+    keys = new Object[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+    threshold = (int) (((long) capacity) * 3 / 4);
+  }
+
+  /**
+   *  Returns the number of slots in the table.  Slot indices run from 0 to
+   *  capacity() - 1; see keyAt() and valueAt().
+   **/
+  public int capacity() {
+    return keys.length;
+  }
+
+  public double loadFactor() {
+    return ((double) size) / ((double) keys.length);
+  }
+
+  /**
+   *  Returns the number of entries stored in the table.
+   **/
+  public int size() {
+    return size;
+  }
+
+  /**
+   *  Tests if the table is empty.
+   **/
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   *  Returns the slot holding key, or -(insertion slot) - 1 if the key is
+   *  absent.
+   **/
+  protected int slotOf(Object key) {
+    Object[] ks = keys;
+    int m = mask;
+    int i = mix(key.hashCode()) & m;
+    Object k;
+    while ((k = ks[i]) != null) {
+      if (k == key || k.equals(key)) {
+        return i;
+      }
+      i = (i + 1) & m;
+    }
+    return -i - 1;
+  }
+
+  /**
+   *  Insert key with the given value, or update the value if the key is
+   *  already present.  Returns an Entry holding the key and value.
+   *
+   *  Runs in O(1) expected time.
+   *
+   *  @param key the key by which the entry can be retrieved.
+   *  @param value an arbitrary object.
+   *  @return an entry containing the key and value.
+   **/
+  public Entry<T,V> insert(T key, V value) {
+    put(key, value);
+    Entry<T,V> e = new Entry<T,V>();
+    e.key = key;
+    e.value = value;
+    return e;
+  }
+
+  /**
+   *  Insert key with the given value, or update the value if the key is
+   *  already present.  Probes the table once and allocates nothing unless
+   *  the table has to grow.
+   *
+   *  @return the previous value for key, or null if there was none.
+   **/
+  @SuppressWarnings("unchecked")
+  public V put(T key, V value) {
+    int slot = slotOf(key);
+    if (slot >= 0) {
+      V old = (V) values[slot];
+      values[slot] = value;
+      return old;
+    }
+    slot = -slot - 1;
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+    if (size > threshold) {
+      resize();
+    }
+    return null;
+  }
+
+  /**
+   *  Search for an entry with the specified key.  If such an entry is found,
+   *  return it; otherwise return null.
+   *
+   *  @param key the search key.
+   *  @return an entry containing the key and its value, or null.
+   **/
+  public Entry<T,V> find(T key) {
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return null;
+    }
+    return entryAt(slot);
+  }
+
+  /**
+   *  Returns the value for key, or null if the key is absent.  Allocates
+   *  nothing.
+   **/
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    int slot = slotOf(key);
+    return slot < 0 ? null : (V) values[slot];
+  }
+
+  /**
+   *  Returns true if key is present.  Allocates nothing.
+   **/
+  public boolean containsKey(Object key) {
+    return slotOf(key) >= 0;
+  }
+
+  /**
+   *  Remove the entry with the specified key.  If such an entry is found,
+   *  remove it from the table and return it; otherwise return null.
+   *
+   *  @param key the search key.
+   *  @return an entry containing the key and its value, or null.
+   **/
+  public Entry<T,V> remove(T key) {
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return null;
+    }
+    Entry<T,V> e = entryAt(slot);
+    removeSlot(slot);
+    return e;
+  }
+
+  /**
+   *  Empties slot i and shifts later members of its probe run back so that
+   *  every key stays reachable from its home slot.
+   **/
+  protected void removeSlot(int i) {
+    Object[] ks = keys;
+    Object[] vs = values;
+    int m = mask;
+    int j = i;
+    while (true) {
+      j = (j + 1) & m;
+      Object k = ks[j];
+      if (k == null) {
+        break;
+      }
+      int home = mix(k.hashCode()) & m;
+      // k may move into the hole at i unless its home lies in (i, j].
+      if (((j - home) & m) >= ((j - i) & m)) {
+        ks[i] = k;
+        vs[i] = vs[j];
+        i = j;
+      }
+    }
+    ks[i] = null;
+    vs[i] = null;
+    size--;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Entry<T,V> entryAt(int slot) {
+    Entry<T,V> e = new Entry<T,V>();
+    e.key = (T) keys[slot];
+    e.value = (V) values[slot];
+    return e;
+  }
+
+  /**
+   *  Returns the key stored in the given slot, or null if the slot is empty.
+   *  Together with capacity() and valueAt() this allows allocation-free
+   *  iteration; the table must not be modified while iterating.
+   **/
+  @SuppressWarnings("unchecked")
+  public T keyAt(int slot) {
+    return (T) keys[slot];
+  }
+
+  /**
+   *  Returns the value stored in the given slot, or null if the slot is empty.
+   **/
+  @SuppressWarnings("unchecked")
+  public V valueAt(int slot) {
+    return (V) values[slot];
+  }
+
+  /**
+   *  Returns a new array holding every key in the table.  Runs in
+   *  O(capacity) time.
+   **/
+  public Object[] keys() {
+    Object[] ret = new Object[size];
+    int count = 0;
+    for (Object k : keys) {
+      if (k != null) {
+        ret[count++] = k;
+      }
+    }
+    return ret;
+  }
+
+  /**
+   *  Returns a newly built DList of all the entries in the table.  Unlike
+   *  HashTable.entries() this runs in O(capacity) time, and modifying the
+   *  returned Entries does not change the table.
+   *
+   *  @return DList containing Entry objects
+   **/
+  public DList<Entry<T,V>> entries() {
+    DList<Entry<T,V>> ret = new DList<Entry<T,V>>();
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null) {
+        ret.insertBack(entryAt(i));
+      }
+    }
+    return ret;
+  }
+
+  /**
+   *  Returns a Spliterator over the indices of the occupied slots, for use
+   *  with keyAt() and valueAt() in streams.  It splits by halving the slot
+   *  range, so parallel streams spread evenly over the table.  The table
+   *  must not be modified while it is being traversed.
+   **/
+  public java.util.Spliterator.OfInt slots() {
+    return new SlotSpliterator(keys, size);
+  }
+
+  /**
+   *  Makes sure the table can hold expected entries without resizing,
+   *  rehashing once now if it can't.
+   **/
+  public void ensureCapacity(int expected) {
+    if (expected > threshold) {
+      rehash(OpenHashTable.tableSizeFor(expected));
+    }
+  }
+
+  /**
+   *  Doubles the capacity of the table and reinserts every entry in O(n).
+   **/
+  public void resize() {
+    rehash(keys.length * 2);
+  }
+
+  /**
+   *  Shrinks the table to the smallest capacity that holds the current
+   *  entries, giving back the memory of slots emptied by removals.  Runs in
+   *  O(capacity) time if the table shrinks.
+   **/
+  public void compact() {
+    int capacity = OpenHashTable.tableSizeFor(size);
+    if (capacity < keys.length) {
+      rehash(capacity);
+    }
+  }
+
+  protected void rehash(int capacity) {
+    Object[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+    Object[] ks = keys;
+    int m = mask;
+    for (int j = 0; j < oldKeys.length; j++) {
+      Object k = oldKeys[j];
+      if (k != null) {
+        int i = mix(k.hashCode()) & m;
+        while (ks[i] != null) {
+          i = (i + 1) & m;
+        }
+        ks[i] = k;
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  /**
+   *  Remove all entries from the table.  The capacity is unchanged.
+   **/
+  public void makeEmpty() {
+    java.util.Arrays.fill(keys, null);
+    java.util.Arrays.fill(values, null);
+    size = 0;
+  }
+
+  public String toString() {
+    String ret = "{  ";
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null) {
+        ret += keys[i].toString() + ":" + values[i].toString() + "  ";
+      }
+    }
+    ret += "  }";
+    return ret;
+  }
+
+  /**
+   *  Splits t.slots() as far as it will go and checks that the pieces
+   *  together visit every occupied slot exactly once.
+   **/
+  private static boolean slotsCovered(OpenHashTable<?,?> t) {
+    java.util.Spliterator.OfInt sp = t.slots();
+    boolean ok = sp.hasCharacteristics(java.util.Spliterator.SIZED) &&
+                 sp.estimateSize() == t.size();
+    boolean[] seen = new boolean[t.capacity()];
+    java.util.ArrayList<java.util.Spliterator.OfInt> pieces =
+      new java.util.ArrayList<java.util.Spliterator.OfInt>();
+    pieces.add(sp);
+    int count = 0;
+    while (!pieces.isEmpty()) {
+      java.util.Spliterator.OfInt piece = pieces.remove(pieces.size() - 1);
+      java.util.Spliterator.OfInt prefix = piece.trySplit();
+      if (prefix != null) {
+        ok &= !piece.hasCharacteristics(java.util.Spliterator.SIZED);
+        pieces.add(piece);
+        pieces.add(prefix);
+        continue;
+      }
+      int[] n = new int[1];
+      piece.forEachRemaining((int slot) -> {
+        n[0]++;
+        seen[slot] = !seen[slot];
+      });
+      count += n[0];
+    }
+    for (int i = 0; i < seen.length; i++) {
+      ok &= seen[i] == (t.keyAt(i) != null);
+    }
+    return ok && count == t.size();
+  }
+
+  public static void main(String[] args) {
+    OpenHashTable<String,Integer> test = new OpenHashTable<String,Integer>(4);
+    for (int i = 0; i < 1000; i++) {
+      test.insert("test" + i, i);
+    }
+    test.insert("test5", 15);
+    System.out.println("size should be 1000: " + test.size());
+    System.out.println("test5 should be 15: " + test.get("test5"));
+    for (int i = 0; i < 1000; i += 2) {
+      test.remove("test" + i);
+    }
+    boolean ok = test.size() == 500;
+    for (int i = 0; i < 1000; i++) {
+      ok &= test.containsKey("test" + i) == (i % 2 == 1);
+    }
+    System.out.println("remove/find consistent after 500 removes: " + ok);
+    System.out.println("slots() splits cover every entry once: " +
+                       slotsCovered(test));
+    System.out.println(test.find("test7"));
+    System.out.println(test.remove("missing"));
+  }
+}
@@ -0,0 +1,86 @@
+/* SlotSpliterator.java */
+package dict;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ *  A Spliterator over the indices of the occupied slots of an open-addressing
+ *  table whose empty slots hold null keys (OpenHashTable, ObjIntHashMap).
+ *  Splitting halves the slot range in O(1).  The unsplit spliterator knows
+ *  exactly how many slots are occupied and reports SIZED; halves only
+ *  estimate, since entries are not spread evenly over the slots.
+ *
+ *  The table must not be modified while it is being traversed.
+ **/
+
+class SlotSpliterator implements Spliterator.OfInt {
+
+  static final int MIN_SPLIT = 256;
+
+  private final Object[] keys;
+  private int lo;
+  private final int hi;
+  private long estimate;
+  private boolean exact;
+
+  SlotSpliterator(Object[] keys, int size) {
+    this(keys, 0, keys.length, size, true);
+  }
+
+  private SlotSpliterator(Object[] keys, int lo, int hi, long estimate,
+                          boolean exact) {
+    this.keys = keys;
+    this.lo = lo;
+    this.hi = hi;
+    this.estimate = estimate;
+    this.exact = exact;
+  }
+
+  public boolean tryAdvance(IntConsumer action) {
+    while (lo < hi) {
+      int slot = lo++;
+      if (keys[slot] != null) {
+        if (exact) {
+          estimate--;
+        }
+        action.accept(slot);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public void forEachRemaining(IntConsumer action) {
+    int i = lo;
+    lo = hi;
+    for (; i < hi; i++) {
+      if (keys[i] != null) {
+        action.accept(i);
+      }
+    }
+    if (exact) {
+      estimate = 0;
+    }
+  }
+
+  public Spliterator.OfInt trySplit() {
+    if (hi - lo < MIN_SPLIT) {
+      return null;
+    }
+    int mid = (lo + hi) >>> 1;
+    estimate >>>= 1;
+    exact = false;
+    Spliterator.OfInt prefix =
+      new SlotSpliterator(keys, lo, mid, estimate, false);
+    lo = mid;
+    return prefix;
+  }
+
+  public long estimateSize() {
+    return estimate;
+  }
+
+  public int characteristics() {
+    return exact ? DISTINCT | SIZED : DISTINCT;
+  }
+}
@@ -0,0 +1,204 @@
+/* Adjacency.java */
+
+package graph;
+
+import dict.*;
+
+/**
+ * An Adjacency holds the edges incident on one vertex of a WUGraph, as a map
+ * from the neighbor's handle to the edge's VertexPair.  Most vertices of a
+ * sparse graph have only a few neighbors, so an Adjacency starts out as two
+ * short packed arrays that are searched linearly.  Once its degree passes
+ * PROMOTE_DEGREE it moves its entries into an IntObjHashMap, and if removals
+ * bring the degree back down to DEMOTE_DEGREE it moves them back into the
+ * arrays, which it keeps while hashed so that removing an edge never
+ * allocates.  The gap between the two thresholds keeps a vertex whose degree
+ * hovers near one of them from converting back and forth.
+ *
+ * Either way a lookup is O(1) expected time, and a vertex of degree d uses
+ * O(d) memory.
+ *
+ * Like IntObjHashMap, an Adjacency can be iterated without allocating by
+ * looping over slots 0 to capacity() - 1 and skipping those whose valueAt()
+ * is null.
+ */
+
+class Adjacency {
+
+  static final int PROMOTE_DEGREE = 8;
+  static final int DEMOTE_DEGREE = 4;
+
+  private static final int[] NO_KEYS = new int[0];
+  private static final VertexPair[] NO_VALUES = new VertexPair[0];
+
+  /**
+   * While the adjacency is small, its entries are keys[0..size-1] and
+   * values[0..size-1], and hashed is null.  Otherwise hashed holds them, and
+   * keys and values are kept (empty) so that demoting needs no allocation.
+   */
+  private int[] keys = NO_KEYS;
+  private VertexPair[] values = NO_VALUES;
+  private int size;
+  private IntObjHashMap<VertexPair> hashed;
+
+  /**
+   * Constructs an empty adjacency with room for expectedDegree neighbors (at
+   * most PROMOTE_DEGREE) before its arrays first grow.
+   */
+  Adjacency(int expectedDegree) {
+    int length = Math.min(Math.max(expectedDegree, 0), PROMOTE_DEGREE);
+    if (length > 0) {
+      keys = new int[length];
+      values = new VertexPair[length];
+    }
+  }
+
+  /**
+   * size() returns the number of neighbors.
+   */
+  int size() {
+    return hashed == null ? size : hashed.size();
+  }
+
+  private int indexOf(int key) {
+    int[] ks = keys;
+    for (int i = 0; i < size; i++) {
+      if (ks[i] == key) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * get() returns the edge to the given neighbor, or null if there is none.
+   */
+  VertexPair get(int neighbor) {
+    if (hashed != null) {
+      return hashed.get(neighbor);
+    }
+    int i = indexOf(neighbor);
+    return i < 0 ? null : values[i];
+  }
+
+  boolean containsKey(int neighbor) {
+    return hashed != null ? hashed.containsKey(neighbor)
+                          : indexOf(neighbor) >= 0;
+  }
+
+  /**
+   * put() records the edge to the given neighbor, replacing any previous one.
+   *
+   * @return the previous edge to neighbor, or null if there was none.
+   */
+  VertexPair put(int neighbor, VertexPair edge) {
+    if (hashed != null) {
+      return hashed.put(neighbor, edge);
+    }
+    int i = indexOf(neighbor);
+    if (i >= 0) {
+      VertexPair old = values[i];
+      values[i] = edge;
+      return old;
+    }
+    if (size == PROMOTE_DEGREE) {
+      promote();
+      return hashed.put(neighbor, edge);
+    }
+    if (size == keys.length) {
+      int length = Math.min(Math.max(2, size * 2), PROMOTE_DEGREE);
+      keys = java.util.Arrays.copyOf(keys, length);
+      values = java.util.Arrays.copyOf(values, length);
+    }
+    keys[size] = neighbor;
+    values[size] = edge;
+    size++;
+    return null;
+  }
+
+  /**
+   * remove() removes the edge to the given neighbor.
+   *
+   * @return the removed edge, or null if there was none.
+   */
+  VertexPair remove(int neighbor) {
+    if (hashed != null) {
+      VertexPair old = hashed.remove(neighbor);
+      if (hashed.size() <= DEMOTE_DEGREE) {
+        demote();
+      }
+      return old;
+    }
+    int i = indexOf(neighbor);
+    if (i < 0) {
+      return null;
+    }
+    VertexPair old = values[i];
+    size--;
+    keys[i] = keys[size];                    // move the last entry into the hole
+    values[i] = values[size];
+    values[size] = null;
+    return old;
+  }
+
+  private void promote() {
+    hashed = new IntObjHashMap<VertexPair>(2 * PROMOTE_DEGREE);
+    for (int i = 0; i < size; i++) {
+      hashed.put(keys[i], values[i]);
+    }
+    java.util.Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+
+  private void demote() {
+    IntObjHashMap<VertexPair> h = hashed;
+    hashed = null;
+    if (keys.length < h.size()) {
+      keys = new int[PROMOTE_DEGREE];
+      values = new VertexPair[PROMOTE_DEGREE];
+    }
+    for (int s = 0; s < h.capacity(); s++) {
+      VertexPair e = h.valueAt(s);
+      if (e != null) {
+        keys[size] = h.keyAt(s);
+        values[size] = e;
+        size++;
+      }
+    }
+  }
+
+  /**
+   * compact() gives back memory left over from removals.
+   */
+  void compact() {
+    if (hashed != null) {
+      hashed.compact();
+    } else if (size < keys.length) {
+      keys = size == 0 ? NO_KEYS : java.util.Arrays.copyOf(keys, size);
+      values = size == 0 ? NO_VALUES : java.util.Arrays.copyOf(values, size);
+    }
+  }
+
+  /**
+   * capacity() returns the number of slots; see keyAt() and valueAt().
+   */
+  int capacity() {
+    return hashed == null ? keys.length : hashed.capacity();
+  }
+
+  /**
+   * keyAt() returns the neighbor in the given slot.  Meaningful only if
+   * valueAt() of the same slot is not null.
+   */
+  int keyAt(int slot) {
+    return hashed == null ? keys[slot] : hashed.keyAt(slot);
+  }
+
+  /**
+   * valueAt() returns the edge in the given slot, or null if the slot is
+   * empty.
+   */
+  VertexPair valueAt(int slot) {
+    return hashed == null ? values[slot] : hashed.valueAt(slot);
+  }
+}
@@ -0,0 +1,137 @@
+/* CsrGraph.java */
+
+package graph;
+
+import dict.*;
+
+/**
+ * A CsrGraph is an immutable snapshot of a WUGraph in compressed sparse row
+ * form, made by WUGraph.toCsr().  Vertices are numbered 0 to vertexCount()-1.
+ * The neighbors of vertex i are targets[offsets[i]] through
+ * targets[offsets[i+1]-1], in increasing order, and weights[p] is the weight
+ * of the edge to targets[p].  An edge (u, v) appears in the rows of both u
+ * and v; a self-edge appears once, in its vertex's row.
+ *
+ * Scanning a row touches two adjacent runs of two int arrays, with no hashing
+ * and no objects, so read-heavy algorithms run at array speed once a graph
+ * has finished loading.  The snapshot does not change when the WUGraph it was
+ * made from changes.
+ *
+ * The arrays are public so that algorithms can index them directly.  Do not
+ * modify them.
+ */
+
+public class CsrGraph {
+  public final int[] offsets;
+  public final int[] targets;
+  public final int[] weights;
+
+  protected final Object[] vertexList;
+  protected final ObjIntHashMap<Object> vertexIndex;
+  protected final int edgeCount;
+
+  /**
+   * CsrGraph() wraps arrays built by WUGraph.toCsr().  Rows must already be
+   * sorted by target.
+   */
+  CsrGraph(Object[] vertexList, ObjIntHashMap<Object> vertexIndex,
+           int[] offsets, int[] targets, int[] weights, int edgeCount) {
+    this.vertexList = vertexList;
+    this.vertexIndex = vertexIndex;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.edgeCount = edgeCount;
+  }
+
+  /**
+   * vertexCount() returns the number of vertices in the graph.
+   *
+   * Running time:  O(1).
+   */
+  public int vertexCount() {
+    return vertexList.length;
+  }
+
+  /**
+   * edgeCount() returns the number of edges in the graph, counting each
+   * undirected edge once.
+   *
+   * Running time:  O(1).
+   */
+  public int edgeCount() {
+    return edgeCount;
+  }
+
+  /**
+   * vertex() returns the object that vertex number i stands for.
+   *
+   * Running time:  O(1).
+   */
+  public Object vertex(int i) {
+    return vertexList[i];
+  }
+
+  /**
+   * indexOf() returns the number of the given vertex object, or -1 if it was
+   * not a vertex of the graph when the snapshot was made.
+   *
+   * Running time:  O(1).
+   */
+  public int indexOf(Object vertex) {
+    return vertexIndex.get(vertex, -1);
+  }
+
+  /**
+   * degree() returns the degree of vertex number i.  Self-edges add only one
+   * to the degree of a vertex.
+   *
+   * Running time:  O(1).
+   */
+  public int degree(int i) {
+    return offsets[i + 1] - offsets[i];
+  }
+
+  /**
+   * edgeIndex() returns the position p of edge (u, v) in targets[] and
+   * weights[], searching u's row, or -1 if (u, v) is not an edge.
+   *
+   * Running time:  O(log d), where d is the degree of u.
+   */
+  public int edgeIndex(int u, int v) {
+    int lo = offsets[u];
+    int hi = offsets[u + 1] - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      int t = targets[mid];
+      if (t < v) {
+        lo = mid + 1;
+      } else if (t > v) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * isEdge() returns true if (u, v) is an edge of the graph.
+   *
+   * Running time:  O(log d), where d is the degree of u.
+   */
+  public boolean isEdge(int u, int v) {
+    return edgeIndex(u, v) >= 0;
+  }
+
+  /**
+   * weight() returns the weight of (u, v), or zero if (u, v) is not an edge
+   * (with the same caveat as WUGraph.weight()).
+   *
+   * Running time:  O(log d), where d is the degree of u.
+   */
+  public int weight(int u, int v) {
+    int p = edgeIndex(u, v);
+    return p < 0 ? 0 : weights[p];
+  }
+}
@@ -0,0 +1,23 @@
+/* EdgeConsumer.java */
+
+package graph;
+
+/**
+ * An EdgeConsumer receives the edges of a WUGraph from
+ * WUGraph.forEachEdge(EdgeConsumer), one call per edge.  Nothing is allocated
+ * per edge.
+ */
+
+public interface EdgeConsumer {
+
+  /**
+   * accept() is called once for each edge (u, v) of the graph.  Since the
+   * graph is undirected, which endpoint is u and which is v is arbitrary.
+   * For a self-edge, u and v are the same object.
+   *
+   * @param u one endpoint of the edge.
+   * @param v the other endpoint of the edge.
+   * @param weight the weight of the edge.
+   */
+  void accept(Object u, Object v, int weight);
+}
@@ -0,0 +1,22 @@
+/* IntEdgeConsumer.java */
+
+package graph;
+
+/**
+ * An IntEdgeConsumer receives the edges of a WUGraph from
+ * WUGraph.forEachEdge(int, int, IntEdgeConsumer), as the handles of their endpoints
+ * along with their weights.  Nothing is boxed or allocated per edge.
+ */
+
+public interface IntEdgeConsumer {
+
+  /**
+   * accept() is called once for each edge of the graph.  u is never greater
+   * than v; for a self-edge they are equal.
+   *
+   * @param u the handle of the endpoint with the lower handle.
+   * @param v the handle of the other endpoint.
+   * @param weight the weight of the edge.
+   */
+  void accept(int u, int v, int weight);
+}
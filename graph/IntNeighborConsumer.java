@@ -0,0 +1,21 @@
+/* IntNeighborConsumer.java */
+
+package graph;
+
+/**
+ * An IntNeighborConsumer receives the neighbors of a vertex from
+ * WUGraph.forEachHandleNeighbor(), as vertex handles along with the weights
+ * of the connecting edges.  Nothing is boxed or allocated per neighbor.
+ */
+
+public interface IntNeighborConsumer {
+
+  /**
+   * accept() is called once for each edge (u, neighbor) incident on the
+   * vertex u being visited.
+   *
+   * @param neighbor the handle of the vertex at the other end of the edge.
+   * @param weight the weight of the edge.
+   */
+  void accept(int neighbor, int weight);
+}
@@ -0,0 +1,22 @@
+/* NeighborConsumer.java */
+
+package graph;
+
+/**
+ * A NeighborConsumer receives the neighbors of a vertex from
+ * WUGraph.forEachNeighbor(Object, NeighborConsumer), along with the weights
+ * of the connecting edges.  The weight is passed as a primitive int, so
+ * nothing is boxed or allocated per neighbor.
+ */
+
+public interface NeighborConsumer {
+
+  /**
+   * accept() is called once for each edge (u, neighbor) incident on the
+   * vertex u being visited.
+   *
+   * @param neighbor the vertex object at the other end of the edge.
+   * @param weight the weight of the edge.
+   */
+  void accept(Object neighbor, int weight);
+}
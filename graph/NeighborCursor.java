@@ -0,0 +1,90 @@
+/* NeighborCursor.java */
+
+package graph;
+
+/**
+ * A NeighborCursor steps through the neighbors of one vertex of a WUGraph at
+ * a time.  It is created once by WUGraph.neighborCursor() and then pointed at
+ * vertex after vertex with reset(), so a traversal that visits millions of
+ * neighbors allocates nothing after the cursor itself.  Typical use:
+ *
+ *   NeighborCursor c = g.neighborCursor();
+ *   for (...) {
+ *     c.reset(vertex);
+ *     while (c.next()) {
+ *       ... c.neighbor() ... c.weight() ...
+ *     }
+ *   }
+ *
+ * The graph must not be changed while a cursor is stepping through it.
+ */
+
+public class NeighborCursor {
+  protected final WUGraph graph;
+  protected Adjacency adjacency;
+  protected int slot;
+
+  NeighborCursor(WUGraph graph) {
+    this.graph = graph;
+  }
+
+  /**
+   * reset() points the cursor before the first neighbor of "vertex".  If
+   * "vertex" does not represent a vertex of the graph, the cursor has no
+   * neighbors to step through.
+   */
+  public void reset(Object vertex) {
+    resetHandle(graph.handleOf(vertex));
+  }
+
+  /**
+   * resetHandle() points the cursor before the first neighbor of the vertex
+   * with the given handle.
+   */
+  public void resetHandle(int handle) {
+    adjacency = graph.isHandle(handle) ? graph.adjacency[handle] : null;
+    slot = -1;
+  }
+
+  /**
+   * next() advances the cursor to the next neighbor.
+   *
+   * @return true if there is one, false if every neighbor has been visited.
+   */
+  public boolean next() {
+    Adjacency adj = adjacency;
+    if (adj == null) {
+      return false;
+    }
+    int limit = adj.capacity();
+    while (++slot < limit) {
+      if (adj.valueAt(slot) != null) {
+        return true;
+      }
+    }
+    adjacency = null;
+    return false;
+  }
+
+  /**
+   * neighbor() returns the vertex object the cursor is at.  Valid only after
+   * next() has returned true.
+   */
+  public Object neighbor() {
+    return graph.vertexList[adjacency.keyAt(slot)];
+  }
+
+  /**
+   * neighborHandle() returns the handle of the vertex the cursor is at.
+   */
+  public int neighborHandle() {
+    return adjacency.keyAt(slot);
+  }
+
+  /**
+   * weight() returns the weight of the edge to the vertex the cursor is at.
+   */
+  public int weight() {
+    return adjacency.valueAt(slot).weight;
+  }
+}
@@ -3,15 +3,46 @@
 package graph;
 import list.*;
 import dict.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 /**
  * The WUGraph class represents a weighted, undirected graph.  Self-edges are
  * permitted.
+ *
+ * Every vertex also has a handle:  a small int, returned by addVertex() and
+ * handleOf(), that stays the same for as long as the vertex is in the graph.
+ * Handles are dense; they run from 0 to handleLimit() - 1, and the handle of
+ * a removed vertex is given to the next vertex added.  The methods that take
+ * handles instead of vertex objects skip hashing the vertex objects.  A
+ * handle that does not belong to a vertex of the graph is treated like an
+ * object that is not a vertex.  The handle methods have names of their own
+ * (isHandle(), handleDegree(), isHandleEdge(), and so on) rather than
+ * overloading the object methods, so that a graph whose vertices are
+ * Integers never has a vertex mistaken for a handle.
+ *
+ * Methods that sweep every handle (getVertices(), forEachEdge(), edges(),
+ * toCsr(), and so on) take time proportional to handleLimit(), which stays
+ * at the most vertices the graph has held at once until compact() drops
+ * the free handles at the top of the range.
+ *
+ * Queries and edge removals never allocate.  isEdge(), weight() and
+ * removeEdge() look up the handles of u and v and probe u's adjacency with
+ * v's handle, so no VertexPair is built just to serve as a lookup key, and
+ * an adjacency that shrinks back from a hash table to arrays reuses the
+ * arrays it kept.  removeVertex() allocates only when the list of free
+ * handles has to grow.
  */
 
 public class WUGraph {
 
-  HashTable<Object,HashTable<Object,VertexPair>> vertices;
-  HashTable<VertexPair,Integer> edges;
+  ObjIntHashMap<Object> handles;
+  Object[] vertexList;
+  Adjacency[] adjacency;
+  IntArrayList freeHandles;
+  int handleLimit;
+  int edgeCount;
+  int degreeEstimate;
 
   /**
    * WUGraph() constructs a graph having no vertices or edges.
@@ -19,8 +50,25 @@ public class WUGraph {
    * Running time:  O(1).
    */
   public WUGraph(){
-    vertices = new HashTable<Object,HashTable<Object,VertexPair>>(50);
-    edges = new HashTable<VertexPair,Integer>(50);
+    this(50, 50);
+  }
+
+  /**
+   * WUGraph() constructs a graph having no vertices or edges, with tables
+   * sized to hold the given numbers of vertices and edges without resizing.
+   * Use this when the size of a graph being loaded is known in advance.
+   * Each vertex added starts with room for the average degree the two
+   * estimates imply, 2 * edgeEstimate / vertexEstimate.
+   *
+   * Running time:  O(vertexEstimate).
+   */
+  public WUGraph(int vertexEstimate, int edgeEstimate){
+    handles = new ObjIntHashMap<Object>(vertexEstimate);
+    vertexList = new Object[Math.max(vertexEstimate, 1)];
+    adjacency = new Adjacency[vertexList.length];
+    freeHandles = new IntArrayList();
+    degreeEstimate = (int) Math.min((2L * edgeEstimate + vertexList.length - 1)
+                                    / vertexList.length, Integer.MAX_VALUE);
   }
 
   /**
@@ -29,7 +77,38 @@ public class WUGraph {
    * Running time:  O(1).
    */
   public int vertexCount(){
-    return vertices.size();
+    return handles.size();
+  }
+
+  /**
+   * handleLimit() returns one more than the largest handle in use (or
+   * given out since the last compact()), so that an array of this length can
+   * be indexed by the handle of every vertex.
+   *
+   * Running time:  O(1).
+   */
+  public int handleLimit(){
+    return handleLimit;
+  }
+
+  /**
+   * handleOf() returns the handle of a vertex, or -1 if the parameter
+   * "vertex" does not represent a vertex of the graph.
+   *
+   * Running time:  O(1).
+   */
+  public int handleOf(Object vertex){
+    return handles.get(vertex, -1);
+  }
+
+  /**
+   * vertexOf() returns the vertex object with the given handle, or null if
+   * no vertex has that handle.
+   *
+   * Running time:  O(1).
+   */
+  public Object vertexOf(int handle){
+    return isHandle(handle) ? vertexList[handle] : null;
   }
 
   /**
@@ -38,7 +117,7 @@ public class WUGraph {
    * Running time:  O(1).
    */
   public int edgeCount(){
-    return edges.size();
+    return edgeCount;
   }
 
   /**
@@ -51,17 +130,152 @@ public class WUGraph {
    * vertices!  Return only the same objects that were provided by the
    * calling application in calls to addVertex().)
    *
-   * Running time:  O(|V|).
+   * Running time:  O(handleLimit()).
    */
   public Object[] getVertices(){
-    DList<Entry<Object,HashTable<Object,VertexPair>>> entries = vertices.entries();
-    Object[] getverts = new Object[entries.length()];
+    Object[] ret = new Object[vertexCount()];
     int count = 0;
-    for(Entry k: entries){
-      getverts[count] = k.key();
-      count++; 
+    for(int h = 0; h < handleLimit; h++){
+      if(vertexList[h] != null)
+        ret[count++] = vertexList[h];
     }
-    return getverts;
+    return ret;
+  }
+
+  /**
+   * vertices() returns a Stream of the objects that serve as vertices of the
+   * graph, without copying them into an array first.  The stream splits
+   * evenly for parallel use (call parallel() on it).  The graph must not be
+   * changed while the stream is in use.
+   *
+   * Running time:  O(handleLimit()) to consume the stream.
+   */
+  public Stream<Object> vertices(){
+    return StreamSupport.intStream(handles.slots(), false).mapToObj(i -> handles.keyAt(i));
+  }
+
+  /**
+   * edges() returns a Stream with one WeightedEdge for each edge of the
+   * graph, self-edges included.  The stream splits evenly by vertex handle
+   * for parallel use (call parallel() on it).  The graph must not be changed
+   * while the stream is in use.  forEachEdge() visits the same edges without
+   * creating a WeightedEdge for each.
+   *
+   * Running time:  O(handleLimit() + |E|) to consume the stream.
+   */
+  public Stream<WeightedEdge> edges(){
+    //Each edge is reported by the endpoint with the lower handle.
+    return IntStream.range(0, handleLimit).boxed().flatMap(h -> {
+      Adjacency adj = adjacency[h];
+      if(adj == null)
+        return Stream.empty();
+      return IntStream.range(0, adj.capacity())
+             .filter(s -> adj.valueAt(s) != null && adj.keyAt(s) >= h)
+             .mapToObj(s -> {
+               VertexPair e = adj.valueAt(s);
+               return new WeightedEdge(e.object1, e.object2, e.weight);
+             });
+    });
+  }
+
+  /**
+   * forEachEdge() calls c.accept() exactly once for each edge of the graph,
+   * self-edges included, passing its two endpoints and its weight.  Nothing
+   * is allocated.  The graph must not be changed until forEachEdge() returns.
+   *
+   * Running time:  O(handleLimit() + |E|).
+   */
+  public void forEachEdge(EdgeConsumer c){
+    for(int h = 0; h < handleLimit; h++){
+      Adjacency adj = adjacency[h];
+      if(adj == null)
+        continue;
+      for(int s = 0; s < adj.capacity(); s++){
+        VertexPair e = adj.valueAt(s);
+        if(e != null && adj.keyAt(s) >= h)
+          c.accept(vertexList[h], vertexList[adj.keyAt(s)], e.weight);
+      }
+    }
+  }
+
+  /**
+   * forEachEdge() calls c.accept() once for each edge whose lower-handle
+   * endpoint has a handle from "from" up to but not including "to", passing
+   * the handles of its two endpoints (lower handle first) and its weight.
+   * Nothing is allocated.  Ranges that do not overlap see disjoint sets of
+   * edges, and ranges covering 0 to handleLimit() see every edge exactly
+   * once, so a bulk algorithm can fan out by giving each thread its own
+   * range.  The graph must not be changed while any thread is visiting it.
+   *
+   * Running time:  O(to - from + the number of edges visited).
+   */
+  public void forEachEdge(int from, int to, IntEdgeConsumer c){
+    to = Math.min(to, handleLimit);
+    for(int h = Math.max(from, 0); h < to; h++){
+      Adjacency adj = adjacency[h];
+      if(adj == null)
+        continue;
+      for(int s = 0; s < adj.capacity(); s++){
+        VertexPair e = adj.valueAt(s);
+        if(e != null && adj.keyAt(s) >= h)
+          c.accept(h, adj.keyAt(s), e.weight);
+      }
+    }
+  }
+
+  /**
+   * toCsr() returns a CsrGraph, an immutable compressed-sparse-row snapshot
+   * of the graph in which vertices are numbered and each vertex's neighbors
+   * and weights sit in adjacent runs of int arrays.  Use it to run
+   * read-heavy algorithms after the graph has finished loading.  Later
+   * changes to the graph do not affect the snapshot.
+   *
+   * Running time:  O(handleLimit() + |E| log d), where d is the largest
+   * degree.
+   */
+  public CsrGraph toCsr(){
+    int n = vertexCount();
+    Object[] csrVertices = new Object[n];
+    int[] csrIndex = new int[handleLimit];
+    ObjIntHashMap<Object> vertexIndex = new ObjIntHashMap<Object>(n);
+    int[] offsets = new int[n + 1];
+    int maxDegree = 0;
+    for(int h = 0, i = 0; h < handleLimit; h++){
+      if(vertexList[h] == null)
+        continue;
+      csrVertices[i] = vertexList[h];
+      csrIndex[h] = i;
+      vertexIndex.put(vertexList[h], i);
+      int d = adjacency[h].size();
+      offsets[i + 1] = offsets[i] + d;
+      maxDegree = Math.max(maxDegree, d);
+      i++;
+    }
+
+    //Each row is gathered as longs packing the target above the weight, so
+    //one primitive sort puts the row in target order with its weights.
+    int[] targets = new int[offsets[n]];
+    int[] weights = new int[offsets[n]];
+    long[] row = new long[maxDegree];
+    for(int h = 0; h < handleLimit; h++){
+      if(vertexList[h] == null)
+        continue;
+      Adjacency adj = adjacency[h];
+      int d = 0;
+      for(int s = 0; s < adj.capacity(); s++){
+        VertexPair e = adj.valueAt(s);
+        if(e == null)
+          continue;
+        row[d++] = (((long) csrIndex[adj.keyAt(s)]) << 32)
+                   | (e.weight & 0xffffffffL);
+      }
+      java.util.Arrays.sort(row, 0, d);
+      for(int j = 0, p = offsets[csrIndex[h]]; j < d; j++, p++){
+        targets[p] = (int) (row[j] >> 32);
+        weights[p] = (int) row[j];
+      }
+    }
+    return new CsrGraph(csrVertices, vertexIndex, offsets, targets, weights, edgeCount());
   }
 
   /**
@@ -69,11 +283,28 @@ public class WUGraph {
    * The vertex's "name" is the object provided as the parameter "vertex".
    * If this object is already a vertex of the graph, the graph is unchanged.
    *
+   * The return value is the vertex's handle, which callers that only use
+   * vertex objects may ignore.
+   *
    * Running time:  O(1).
    */
-  public void addVertex(Object vertex){
-    if(!isVertex(vertex))
-      vertices.insert(vertex,new HashTable<Object,VertexPair>(vertexCount()+10));
+  public int addVertex(Object vertex){
+    int h = handles.get(vertex, -1);
+    if(h >= 0)
+      return h;
+    if(!freeHandles.isEmpty()){
+      h = freeHandles.removeBack();
+    }else{
+      h = handleLimit++;
+      if(h == vertexList.length){
+        vertexList = java.util.Arrays.copyOf(vertexList, h * 2);
+        adjacency = java.util.Arrays.copyOf(adjacency, h * 2);
+      }
+    }
+    handles.put(vertex, h);
+    vertexList[h] = vertex;
+    adjacency[h] = new Adjacency(degreeEstimate);
+    return h;
   }
 
   /**
@@ -84,16 +315,63 @@ public class WUGraph {
    * Running time:  O(d), where d is the degree of "vertex".
    */
   public void removeVertex(Object vertex){
-    if(isVertex(vertex)){
-      Entry<Object,HashTable<Object,VertexPair>> vert = vertices.remove(vertex);
-      DList<Entry<Object,VertexPair>> connected = vert.value().entries();
-      for(Entry<Object,VertexPair> v: connected){
-        edges.remove(v.value());
-        if(vertices.find(v.key())!=null)
-          vertices.find(v.key()).value().remove(vertex);
-      }
+    removeHandle(handles.get(vertex, -1));
+  }
+
+  /**
+   * removeHandle() removes the vertex with the given handle, and all edges
+   * incident on it, from the graph.  The handle becomes free for reuse.
+   *
+   * Running time:  O(d), where d is the degree of the vertex.
+   */
+  public void removeHandle(int handle){
+    if(!isHandle(handle))
+      return;
+    Adjacency connected = adjacency[handle];
+    for(int i = 0; i < connected.capacity(); i++){
+      if(connected.valueAt(i) == null)
+        continue;
+      edgeCount--;
+      int other = connected.keyAt(i);
+      if(other != handle)
+        adjacency[other].remove(handle);
     }
+    handles.remove(vertexList[handle]);
+    vertexList[handle] = null;
+    adjacency[handle] = null;
+    freeHandles.insertBack(handle);
+  }
 
+  /**
+   * compact() shrinks the graph's internal tables to fit the vertices and
+   * edges that remain, giving back the memory left behind by large sweeps of
+   * removeVertex() and removeEdge().  Free handles above the largest handle
+   * in use are dropped, lowering handleLimit() and so speeding up the
+   * methods that sweep every handle.  Free handles below it are kept, since
+   * renumbering vertices would change handles that callers may hold.  The
+   * graph itself is unchanged.
+   *
+   * Running time:  O(handleLimit() + |E|), plus the old table sizes.
+   */
+  public void compact(){
+    handles.compact();
+    while(handleLimit > 0 && vertexList[handleLimit - 1] == null)
+      handleLimit--;
+    IntArrayList free = new IntArrayList();
+    for(int i = 0; i < freeHandles.length(); i++){
+      if(freeHandles.get(i) < handleLimit)
+        free.insertBack(freeHandles.get(i));
+    }
+    freeHandles = free;
+    int length = Math.max(handleLimit, 1);
+    if(length < vertexList.length){
+      vertexList = java.util.Arrays.copyOf(vertexList, length);
+      adjacency = java.util.Arrays.copyOf(adjacency, length);
+    }
+    for(int h = 0; h < handleLimit; h++){
+      if(adjacency[h] != null)
+        adjacency[h].compact();
+    }
   }
 
   /**
@@ -103,7 +381,17 @@ public class WUGraph {
    * Running time:  O(1).
    */
   public boolean isVertex(Object vertex){
-    return vertices.find(vertex)!=null;
+    return handles.containsKey(vertex);
+  }
+
+  /**
+   * isHandle() returns true if "handle" is the handle of a vertex of the
+   * graph.
+   *
+   * Running time:  O(1).
+   */
+  public boolean isHandle(int handle){
+    return handle >= 0 && handle < handleLimit && vertexList[handle] != null;
   }
 
   /**
@@ -114,9 +402,17 @@ public class WUGraph {
    * Running time:  O(1).
    */
   public int degree(Object vertex){
-    if(vertices.find(vertex)!=null)
-      return vertices.find(vertex).value().size();
-    return 0;
+    return handleDegree(handles.get(vertex, -1));
+  }
+
+  /**
+   * handleDegree() returns the degree of the vertex with the given handle, or
+   * zero if no vertex has that handle.
+   *
+   * Running time:  O(1).
+   */
+  public int handleDegree(int handle){
+    return isHandle(handle) ? adjacency[handle].size() : 0;
   }
 
   /**
@@ -138,23 +434,113 @@ public class WUGraph {
    * Running time:  O(d), where d is the degree of "vertex".
    */
   public Neighbors getNeighbors(Object vertex){
-    if(!isVertex(vertex) || vertices.find(vertex).value().size()==0){
+    int h = handles.get(vertex, -1);
+    if(h < 0 || adjacency[h].size()==0){
       return null;
     }
-    HashTable<Object,VertexPair> n = vertices.find(vertex).value();
-    DList<Entry<Object,VertexPair>> n_entries = n.entries();
+    Adjacency n = adjacency[h];
     Neighbors all = new Neighbors();
     all.weightList = new int[n.size()];
     all.neighborList = new Object[n.size()];
     int count = 0;
-    for(Entry<Object,VertexPair> k : n_entries){
-      all.weightList[count] = edges.find(k.value()).value();
-      all.neighborList[count] = k.key();
+    for(int i = 0; i < n.capacity(); i++){
+      VertexPair e = n.valueAt(i);
+      if(e == null)
+        continue;
+      all.weightList[count] = e.weight;
+      all.neighborList[count] = vertexList[n.keyAt(i)];
       count++;
     }
     return all;
   }
 
+  /**
+   * getNeighbors() fills a caller-owned Neighbors object with the neighbors
+   * of "vertex" and the weights of the corresponding edges, in the same
+   * order getNeighbors(Object) would use, and returns how many there are.
+   * The arrays of "reuse" are kept if they are long enough and replaced with
+   * new ones of exactly the right length if not; either way only their first
+   * (returned number of) entries are meaningful.  Reusing one Neighbors
+   * object across calls allocates nothing once its arrays have grown to the
+   * largest degree seen.  If "vertex" does not represent a vertex of the
+   * graph, zero is returned and "reuse" is unchanged.
+   *
+   * Running time:  O(d), where d is the degree of "vertex".
+   */
+  public int getNeighbors(Object vertex, Neighbors reuse){
+    int h = handles.get(vertex, -1);
+    if(h < 0)
+      return 0;
+    Adjacency n = adjacency[h];
+    int d = n.size();
+    if(reuse.neighborList == null || reuse.neighborList.length < d)
+      reuse.neighborList = new Object[d];
+    if(reuse.weightList == null || reuse.weightList.length < d)
+      reuse.weightList = new int[d];
+    int count = 0;
+    for(int i = 0; i < n.capacity(); i++){
+      VertexPair e = n.valueAt(i);
+      if(e == null)
+        continue;
+      reuse.weightList[count] = e.weight;
+      reuse.neighborList[count] = vertexList[n.keyAt(i)];
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * forEachNeighbor() calls c.accept() once for each edge incident on
+   * "vertex", passing the vertex object at the other end and the edge's
+   * weight.  Nothing is allocated.  If "vertex" does not represent a vertex
+   * of the graph, c is never called.  The graph must not be changed until
+   * forEachNeighbor() returns.
+   *
+   * Running time:  O(d), where d is the degree of "vertex".
+   */
+  public void forEachNeighbor(Object vertex, NeighborConsumer c){
+    int h = handles.get(vertex, -1);
+    if(h < 0)
+      return;
+    Adjacency n = adjacency[h];
+    for(int i = 0; i < n.capacity(); i++){
+      VertexPair e = n.valueAt(i);
+      if(e != null)
+        c.accept(vertexList[n.keyAt(i)], e.weight);
+    }
+  }
+
+  /**
+   * neighborCursor() returns a new NeighborCursor for this graph, which can
+   * be reset() to step through the neighbors of any number of vertices, one
+   * after another, without allocating.
+   *
+   * Running time:  O(1).
+   */
+  public NeighborCursor neighborCursor(){
+    return new NeighborCursor(this);
+  }
+
+  /**
+   * forEachHandleNeighbor() calls c.accept() once for each edge incident on
+   * the vertex with the given handle, passing the handle of the other
+   * endpoint and the edge's weight.  Nothing is allocated.  If no vertex has
+   * the handle, c is never called.  The graph must not be changed until
+   * forEachHandleNeighbor() returns.
+   *
+   * Running time:  O(d), where d is the degree of the vertex.
+   */
+  public void forEachHandleNeighbor(int handle, IntNeighborConsumer c){
+    if(!isHandle(handle))
+      return;
+    Adjacency n = adjacency[handle];
+    for(int i = 0; i < n.capacity(); i++){
+      VertexPair e = n.valueAt(i);
+      if(e != null)
+        c.accept(n.keyAt(i), e.weight);
+    }
+  }
+
   /**
    * addEdge() adds an edge (u, v) to the graph.  If either of the parameters
    * u and v does not represent a vertex of the graph, the graph is unchanged.
@@ -165,11 +551,26 @@ public class WUGraph {
    * Running time:  O(1).
    */
   public void addEdge(Object u, Object v, int weight){
-    if(isVertex(u) && isVertex(v)){
-      VertexPair temp = new VertexPair(u,v);
-      edges.insert(temp,weight);
-      vertices.find(u).value().insert(v,temp);
-      vertices.find(v).value().insert(u,temp);
+    addHandleEdge(handles.get(u, -1), handles.get(v, -1), weight);
+  }
+
+  /**
+   * addHandleEdge() adds an edge between the vertices with handles u and v, or
+   * updates its weight, just as addEdge(Object, Object, int) does.
+   *
+   * Running time:  O(1).
+   */
+  public void addHandleEdge(int u, int v, int weight){
+    if(isHandle(u) && isHandle(v)){
+      VertexPair e = adjacency[u].get(v);
+      if(e == null){
+        //One record per edge, shared by both endpoints' adjacencies.
+        e = new VertexPair(vertexList[u],vertexList[v]);
+        adjacency[u].put(v,e);
+        adjacency[v].put(u,e);
+        edgeCount++;
+      }
+      e.weight = weight;
     }
   }
 
@@ -182,11 +583,22 @@ public class WUGraph {
    * Running time:  O(1).
    */
   public void removeEdge(Object u, Object v){
-    VertexPair temp = new VertexPair(u,v);
-    if(isEdge(u,v)){
-      edges.remove(temp);
-      vertices.find(u).value().remove(v);
-      vertices.find(v).value().remove(u);
+    removeHandleEdge(handles.get(u, -1), handles.get(v, -1));
+  }
+
+  /**
+   * removeHandleEdge() removes the edge between the vertices with handles u
+   * and v, if there is one.
+   *
+   * Running time:  O(1).
+   */
+  public void removeHandleEdge(int u, int v){
+    if(isHandle(u) && isHandle(v)){
+      VertexPair e = adjacency[u].remove(v);
+      if(e != null){
+        adjacency[v].remove(u);
+        edgeCount--;
+      }
     }
   }
 
@@ -198,8 +610,19 @@ public class WUGraph {
    * Running time:  O(1).
    */
   public boolean isEdge(Object u, Object v){
-    return (vertices.find(u)!=null && vertices.find(v)!=null && edges.find(new VertexPair(u,v))!=null);
+    return isHandleEdge(handles.get(u, -1), handles.get(v, -1));
   }
+
+  /**
+   * isHandleEdge() returns true if there is an edge between the vertices
+   * with handles u and v.
+   *
+   * Running time:  O(1).
+   */
+  public boolean isHandleEdge(int u, int v){
+    return isHandle(u) && isHandle(v) && adjacency[u].containsKey(v);
+  }
+
   /**
    * weight() returns the weight of (u, v).  Returns zero if (u, v) is not
    * an edge (including the case where either of the parameters u and v does
@@ -215,9 +638,20 @@ public class WUGraph {
    * Running time:  O(1).
    */
   public int weight(Object u, Object v){
-    if(isEdge(u,v)){
-      Entry<VertexPair,Integer> temp = edges.find(new VertexPair(u,v));
-      return temp.value();
+    return handleWeight(handles.get(u, -1), handles.get(v, -1));
+  }
+
+  /**
+   * handleWeight() returns the weight of the edge between the vertices with
+   * handles u and v, or zero if there is no such edge.
+   *
+   * Running time:  O(1).
+   */
+  public int handleWeight(int u, int v){
+    if(isHandle(u) && isHandle(v)){
+      VertexPair e = adjacency[u].get(v);
+      if(e != null)
+        return e.weight;
     }
     return 0;
   }
@@ -0,0 +1,47 @@
+/* WeightedEdge.java */
+
+package graph;
+
+/**
+ * A WeightedEdge is an immutable snapshot of one edge (u, v) of a WUGraph and
+ * its weight, as produced by WUGraph.edges().  Since the graph is undirected,
+ * which endpoint is u and which is v is arbitrary.  For a self-edge, u and v
+ * are the same object.
+ */
+
+public class WeightedEdge {
+  protected final Object u;
+  protected final Object v;
+  protected final int weight;
+
+  public WeightedEdge(Object u, Object v, int weight) {
+    this.u = u;
+    this.v = v;
+    this.weight = weight;
+  }
+
+  /**
+   * u() returns one endpoint of the edge.
+   */
+  public Object u() {
+    return u;
+  }
+
+  /**
+   * v() returns the other endpoint of the edge.
+   */
+  public Object v() {
+    return v;
+  }
+
+  /**
+   * weight() returns the weight the edge had when this snapshot was taken.
+   */
+  public int weight() {
+    return weight;
+  }
+
+  public String toString() {
+    return "(" + u + ", " + v + "):" + weight;
+  }
+}
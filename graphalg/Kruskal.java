@@ -23,47 +23,127 @@ public class Kruskal {
    * @author Sebastian Merz
    */
   public static WUGraph minSpanTree(WUGraph g) {
-    WUGraph output = new WUGraph();
-    Object[] origVertices = g.getVertices();
-    DList<Edge> edgeList = new DList();
-    HashTable<Edge,Integer> existingEdgeTable = new HashTable(g.edgeCount());
-    HashTable<Object,Integer> vertexTable = new HashTable(origVertices.length);
-
-    int j=0; //We keep (:) loop for elegance, but we need a counter for later.
-    for(Object item:origVertices){
-      vertexTable.insert(item, j);
-      j++;
-
-      output.addVertex(item);
-      Neighbors neighbors = g.getNeighbors(item);
-
-      int i;
-      for(i=0;i<neighbors.neighborList.length;i++){
-        Edge e = new Edge(item, neighbors.neighborList[i], neighbors.weightList[i]);
-
-        if(existingEdgeTable.find(e) == null){
-          edgeList.insertFront(e);
-          existingEdgeTable.insert(e, 1);
+    return minSpanTree(g, false);
+  }
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the WUGraph g, optionally sorting the edges with a parallel sort
+   * so that the sort phase uses every core.  The original WUGraph g is NOT
+   * changed.
+   *
+   * @param g The weighted, undirected graph whose MST we want to compute.
+   * @param parallel true to sort the edges in parallel.
+   * @return A newly constructed WUGraph representing the MST of g.
+   */
+  public static WUGraph minSpanTree(WUGraph g, boolean parallel) {
+    WUGraph output = new WUGraph(g.vertexCount(), g.vertexCount());
+    for(int h=0;h<g.handleLimit();h++){
+      if(g.isHandle(h)){
+        output.addVertex(g.vertexOf(h));
+      }
+    }
+
+    //forEachEdge() reports each edge once, by the handles of its endpoints,
+    //so the handles serve directly as the vertex numbers.
+    final IntArrayList edgeU = new IntArrayList(g.edgeCount());
+    final IntArrayList edgeV = new IntArrayList(g.edgeCount());
+    final LongArrayList edgeOrder = new LongArrayList(g.edgeCount());
+    g.forEachEdge(0, g.handleLimit(), new IntEdgeConsumer() {
+      public void accept(int u, int v, int weight) {
+        edgeOrder.insertBack(LongArrayList.pack(weight, edgeU.length()));
+        edgeU.insertBack(u);
+        edgeV.insertBack(v);
+      }
+    });
+
+    LongArrayList tree = treeEdges(g.handleLimit(), edgeU, edgeV, edgeOrder, parallel);
+    for(int i=0;i<tree.length();i++){
+      long packed = tree.get(i);
+      int e = LongArrayList.low(packed);
+      output.addEdge(g.vertexOf(edgeU.get(e)), g.vertexOf(edgeV.get(e)),
+                     LongArrayList.high(packed));
+    }
+    return output;
+  }
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the graph snapshot g, reading its edges straight from the CSR arrays.
+   * The vertices of the result are the original vertex objects.
+   *
+   * @param g A CSR snapshot of the graph whose MST we want to compute.
+   * @param parallel true to sort the edges in parallel.
+   * @return A newly constructed WUGraph representing the MST of g.
+   */
+  public static WUGraph minSpanTree(CsrGraph g, boolean parallel) {
+    int n = g.vertexCount();
+    WUGraph output = new WUGraph(n, n);
+    for(int j=0;j<n;j++){
+      output.addVertex(g.vertex(j));
+    }
+
+    //An edge (u, v) is in the rows of both u and v, so it is only kept from
+    //the row of the lower number.
+    IntArrayList edgeU = new IntArrayList(g.edgeCount());
+    IntArrayList edgeV = new IntArrayList(g.edgeCount());
+    LongArrayList edgeOrder = new LongArrayList(g.edgeCount());
+    for(int u=0;u<n;u++){
+      for(int p=g.offsets[u];p<g.offsets[u+1];p++){
+        int v = g.targets[p];
+        if(u <= v){
+          edgeOrder.insertBack(LongArrayList.pack(g.weights[p], edgeU.length()));
+          edgeU.insertBack(u);
+          edgeV.insertBack(v);
         }
       }
     }
 
-    edgeList.sort();
+    LongArrayList tree = treeEdges(n, edgeU, edgeV, edgeOrder, parallel);
+    for(int i=0;i<tree.length();i++){
+      long packed = tree.get(i);
+      int e = LongArrayList.low(packed);
+      output.addEdge(g.vertex(edgeU.get(e)), g.vertex(edgeV.get(e)),
+                     LongArrayList.high(packed));
+    }
+    return output;
+  }
+
+  /**
+   * treeEdges() runs the core of Kruskal's algorithm.  Edge number e joins
+   * vertices edgeU.get(e) and edgeV.get(e), which are numbered below
+   * "vertices"; edgeOrder holds one long per edge, packing its weight above
+   * its edge number, so sorting the longs sorts the edges by weight with no
+   * Edge objects at all.  edgeOrder is sorted in place.
+   *
+   * @return the packed longs of the edges of a minimum spanning forest.
+   */
+  private static LongArrayList treeEdges(int vertices, IntArrayList edgeU,
+                                         IntArrayList edgeV,
+                                         LongArrayList edgeOrder,
+                                         boolean parallel) {
+    if(parallel){
+      edgeOrder.parallelSort();
+    }else{
+      edgeOrder.sort();
+    }
 
-    DisjointSets linkedSet = new DisjointSets(origVertices.length);
+    DisjointSets linkedSet = new DisjointSets(vertices);
+    LongArrayList tree = new LongArrayList(Math.max(vertices - 1, 1));
 
-    for(Edge edge:edgeList){
-      int v1Int = vertexTable.find(edge.vertex1).value();
-      int v2Int = vertexTable.find(edge.vertex2).value();
+    for(int i=0;i<edgeOrder.length();i++){
+      long packed = edgeOrder.get(i);
+      int e = LongArrayList.low(packed);
+      int v1Int = linkedSet.find(edgeU.get(e));
+      int v2Int = linkedSet.find(edgeV.get(e));
 
-      if(linkedSet.find(v1Int) != linkedSet.find(v2Int)){
+      if(v1Int != v2Int){
         //In this case, these two vertices are not connected yet.
         linkedSet.union(v1Int, v2Int);
-        output.addEdge(edge.vertex1, edge.vertex2, edge.weight);
+        tree.insertBack(packed);
       }
     }
-
-    return output;
+    return tree;
   }
 
 }
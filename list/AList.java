@@ -0,0 +1,380 @@
+/* AList<T>.java */
+
+package list;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An AList<T> is a mutable, generic, growable array-backed list. It offers
+ * the same Iterable surface as DList<T>, plus O(1) indexed access, in
+ * exchange for giving up O(1) insertion and removal in the middle. Use it
+ * wherever items are only appended and then scanned, indexed or sorted;
+ * each item costs one array slot instead of a whole DListNode.
+ *
+ * Positions run from 0 to length() - 1.
+ **/
+
+public class AList<T> implements Iterable<T> {
+
+	/**
+	 * items holds the list in items[0] through items[size - 1]. Slots past
+	 * size are null.
+	 **/
+	protected Object[] items;
+	protected int size;
+
+	/**
+	 * AList<T>() constructs an empty AList<T>.
+	 **/
+	public AList() {
+		this(10);
+	}
+
+	/**
+	 * AList<T>() constructs an empty AList<T> that can hold "capacity" items
+	 * before it has to grow.
+	 *
+	 * @param capacity the initial capacity.
+	 **/
+	public AList(int capacity) {
+		items = new Object[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * Transforms an iterable into a new AList, populated with every element
+	 * in the iterable, including nulls.
+	 *
+	 * @param inList an iterable to transform into an AList.
+	 */
+	public AList(Iterable<T> inList) {
+		this(10);
+		for (T elem : inList) {
+			insertBack(elem);
+		}
+	}
+
+	/**
+	 * @return an iterator over the current AList<T>
+	 */
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			private int next = 0;
+
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@SuppressWarnings("unchecked")
+			public T next() {
+				if (next >= size) {
+					throw new NoSuchElementException();
+				}
+				return (T) items[next++];
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * @return an ORDERED, SIZED Spliterator over the current AList<T>, which
+	 *         splits into balanced halves in O(1).
+	 */
+	public Spliterator<T> spliterator() {
+		return Spliterators.spliterator(items, 0, size, Spliterator.ORDERED);
+	}
+
+	/**
+	 * @return a sequential Stream of the items in the current AList<T>.
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * @return a parallel Stream of the items in the current AList<T>. The
+	 *         list must not be modified while the stream is in use.
+	 */
+	public Stream<T> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	/**
+	 * isEmpty() returns true if this list is empty, false otherwise.
+	 * Performance: runs in O(1) time.
+	 **/
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * length() returns the length of this list. Performance: runs in O(1)
+	 * time.
+	 **/
+	public int length() {
+		return size;
+	}
+
+	/**
+	 * ensureCapacity() makes sure the list can hold "capacity" items without
+	 * growing again.
+	 **/
+	public void ensureCapacity(int capacity) {
+		if (capacity > items.length) {
+			items = Arrays.copyOf(items,
+					Math.max(capacity, items.length + (items.length >> 1)));
+		}
+	}
+
+	/**
+	 * get() returns the item at position i. Performance: runs in O(1) time.
+	 *
+	 * @exception IndexOutOfBoundsException if i < 0 or i >= length().
+	 **/
+	@SuppressWarnings("unchecked")
+	public T get(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("index " + i + ", length " + size);
+		}
+		return (T) items[i];
+	}
+
+	/**
+	 * set() replaces the item at position i. Performance: runs in O(1) time.
+	 *
+	 * @exception IndexOutOfBoundsException if i < 0 or i >= length().
+	 **/
+	public void set(int i, T item) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("index " + i + ", length " + size);
+		}
+		items[i] = item;
+	}
+
+	/**
+	 * insertBack() inserts an item at the back of this list. Performance:
+	 * runs in amortized O(1) time.
+	 **/
+	public void insertBack(T item) {
+		if (size == items.length) {
+			ensureCapacity(size + 1);
+		}
+		items[size++] = item;
+	}
+
+	/**
+	 * append() is simply an alias to insertBack().
+	 *
+	 * @see AList#insertBack(Object)
+	 */
+	public void append(T item) {
+		insertBack(item);
+	}
+
+	/**
+	 * Appends every item of an array to this list, growing it at most once.
+	 * Runs in O(n) time, where n is the length of "more".
+	 */
+	public void append(T[] more) {
+		ensureCapacity(size + more.length);
+		System.arraycopy(more, 0, items, size, more.length);
+		size += more.length;
+	}
+
+	/**
+	 * Appends every item of another AList to this list, growing it at most
+	 * once. "more" is unchanged.
+	 */
+	public void append(AList<? extends T> more) {
+		ensureCapacity(size + more.size);
+		System.arraycopy(more.items, 0, items, size, more.size);
+		size += more.size;
+	}
+
+	/**
+	 * frontItem() returns the first item, or null if the list is empty.
+	 **/
+	@SuppressWarnings("unchecked")
+	public T frontItem() {
+		return size == 0 ? null : (T) items[0];
+	}
+
+	/**
+	 * backItem() returns the last item, or null if the list is empty.
+	 **/
+	@SuppressWarnings("unchecked")
+	public T backItem() {
+		return size == 0 ? null : (T) items[size - 1];
+	}
+
+	/**
+	 * removeBack() removes the last item. If the list is empty, do nothing.
+	 * Performance: runs in O(1) time.
+	 */
+	public void removeBack() {
+		if (size > 0) {
+			items[--size] = null;
+		}
+	}
+
+	/**
+	 * purge() removes every item. The capacity is unchanged.
+	 **/
+	public void purge() {
+		Arrays.fill(items, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * sort() sorts this list in place, stably, by the items' natural
+	 * ordering. The items must implement Comparable.
+	 *
+	 * Performance: runs in O(n log n) time.
+	 **/
+	public void sort() {
+		Arrays.sort(items, 0, size);
+	}
+
+	/**
+	 * sort() sorts this list in place, stably, according to the given
+	 * Comparator.
+	 *
+	 * Performance: runs in O(n log n) time.
+	 **/
+	@SuppressWarnings("unchecked")
+	public void sort(Comparator<? super T> c) {
+		Arrays.sort((T[]) items, 0, size, c);
+	}
+
+	/**
+	 * parallelSort() sorts this list in place, stably, by the items' natural
+	 * ordering, using the common ForkJoinPool for large lists. The items must
+	 * implement Comparable.
+	 **/
+	public void parallelSort() {
+		parallelSort(new Comparator<T>() {
+			@SuppressWarnings("unchecked")
+			public int compare(T x, T y) {
+				return ((Comparable<Object>) x).compareTo(y);
+			}
+		});
+	}
+
+	/**
+	 * parallelSort() sorts this list in place, stably, according to the
+	 * given Comparator, using the common ForkJoinPool for large lists.
+	 **/
+	@SuppressWarnings("unchecked")
+	public void parallelSort(Comparator<? super T> c) {
+		Arrays.parallelSort((T[]) items, 0, size, c);
+	}
+
+	/**
+	 * toArray() returns a new array holding the items in order.
+	 **/
+	public Object[] toArray() {
+		return Arrays.copyOf(items, size);
+	}
+
+	/**
+	 * @param elem the element to check for inclusion in the list
+	 * @return true if the element is in the list
+	 */
+	public boolean contains(T elem) {
+		for (int i = 0; i < size; i++) {
+			if (items[i] == elem) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * toString() returns a String representation of this list, in the same
+	 * format as DList.toString().
+	 */
+	public String toString() {
+		String result = "[  ";
+		for (int i = 0; i < size; i++) {
+			result = result + items[i] + "  ";
+		}
+		return result + "]";
+	}
+
+	public static void main(String[] argv) {
+		AList<Integer> l = new AList<Integer>(1);
+		System.out.println("An empty list should be [  ]: " + l);
+		System.out.println("l.isEmpty() should be true: " + l.isEmpty());
+		System.out.println("l.frontItem() should be null: " + l.frontItem());
+
+		// Growth from a capacity of one.
+		for (int i = 0; i < 100; i++) {
+			l.insertBack(99 - i);
+		}
+		boolean ok = l.length() == 100;
+		for (int i = 0; i < 100; i++) {
+			ok &= l.get(i) == 99 - i;
+		}
+		System.out.println("100 insertBack()s kept in order: " + ok);
+		try {
+			l.get(100);
+			System.out.println("l.get(100) should throw an exception, but "
+					+ "didn't.");
+		} catch (IndexOutOfBoundsException e) {
+			System.out.println("l.get(100) should throw an exception, and did.");
+		}
+
+		l.sort();
+		ok = true;
+		for (int i = 0; i < 100; i++) {
+			ok &= l.get(i) == i;
+		}
+		System.out.println("sort() by natural ordering: " + ok);
+		l.set(0, 42);
+		System.out.println("l.get(0) after set(0, 42) should be 42: "
+				+ l.get(0));
+		System.out.println("l.contains(l.get(50)) should be true: "
+				+ l.contains(l.get(50)));
+
+		AList<Integer> more = new AList<Integer>();
+		more.append(new Integer[] { 7, 8 });
+		more.append(l);
+		System.out.println("more.length() should be 102: " + more.length()
+				+ ", more.backItem() should be 99: " + more.backItem());
+		more.removeBack();
+		System.out.println("after removeBack(), more.backItem() should be 98: "
+				+ more.backItem());
+		int sum = 0;
+		for (Integer i : more) {
+			sum += i;
+		}
+		System.out.println("iterator sum should be " + more.stream()
+				.mapToInt(Integer::intValue).sum() + ": " + sum);
+
+		AList<int[]> pairs = new AList<int[]>();
+		java.util.Random r = new java.util.Random(12);
+		for (int i = 0; i < 5000; i++) {
+			pairs.insertBack(new int[] { r.nextInt(100), i });
+		}
+		pairs.parallelSort(new Comparator<int[]>() {
+			public int compare(int[] x, int[] y) {
+				return Integer.compare(x[0], y[0]);
+			}
+		});
+		ok = pairs.length() == 5000;
+		for (int i = 1; i < pairs.length(); i++) {
+			int[] x = pairs.get(i - 1);
+			int[] y = pairs.get(i);
+			ok &= x[0] < y[0] || (x[0] == y[0] && x[1] < y[1]);
+		}
+		System.out.println("parallelSort() orders stably: " + ok);
+
+		pairs.purge();
+		System.out.println("after purge(), pairs.length() should be 0: "
+				+ pairs.length());
+	}
+}
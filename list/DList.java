@@ -3,6 +3,10 @@
 package list;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A DList<T> is a mutable, generic, doubly-linked list ADT. Its implementation
@@ -22,6 +26,12 @@ public class DList<T> implements Iterable<T> {
 	protected int size;
 	protected DListNode<T> head;
 
+	/**
+	 * pool, if not null, supplies the nodes allocated by newNode() and takes
+	 * back the nodes removed from this list.
+	 **/
+	protected NodePool pool;
+
 	/*
 	 * DList<T> invariants: 
 	 * 1) head != null. 
@@ -43,6 +53,29 @@ public class DList<T> implements Iterable<T> {
 		return new DListIterator<T>(this);
 	}
 
+	/**
+	 * @return an ORDERED, SIZED Spliterator over the current DList<T>, which
+	 *         splits into balanced halves.
+	 */
+	public Spliterator<T> spliterator() {
+		return new DListSpliterator<T>(this);
+	}
+
+	/**
+	 * @return a sequential Stream of the items in the current DList<T>.
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * @return a parallel Stream of the items in the current DList<T>. The
+	 *         list must not be modified while the stream is in use.
+	 */
+	public Stream<T> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
 	/**
 	 * isEmpty() returns true if this List is empty, false otherwise.
 	 * 
@@ -80,9 +113,31 @@ public class DList<T> implements Iterable<T> {
 	 **/
 	protected DListNode<T> newNode(T item, DList<T> list, DListNode<T> prev,
 			DListNode<T> next) {
+		if (pool != null) {
+			return pool.take(item, list, prev, next);
+		}
 		return new DListNode<T>(item, list, prev, next);
 	}
 
+	/**
+	 * setNodePool() makes "this" DList recycle its nodes through the given
+	 * pool: nodes removed from the list are returned to the pool, and new
+	 * nodes are taken from it when possible. Only use this if no caller
+	 * keeps references to nodes after removing them; see NodePool.
+	 * 
+	 * @param pool the pool to use, or null to stop recycling.
+	 **/
+	public void setNodePool(NodePool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * @return the pool set by setNodePool(), or null.
+	 **/
+	public NodePool nodePool() {
+		return pool;
+	}
+
 	/**
 	 * DList<T>() constructs an empty DList<T>.
 	 * 
@@ -296,63 +351,236 @@ public class DList<T> implements Iterable<T> {
 	}
 
 	/**
-	 * partition() partitions dIn using the pivot item. On completion of this
-	 * method, dIn is empty, and its items have been moved to dSmall, dEquals,
-	 * and dLarge, according to their relationship to the pivot.
+	 * sort() sorts "this" DList in place from smallest to largest, using the
+	 * items' natural ordering. The items must implement Comparable.
 	 * 
-	 * @param dIn
-	 *            is a DList<T> of Comparable objects.
-	 * @param pivot
-	 *            is a Comparable item used for partitioning.
-	 * @param dSmall
-	 *            is a DList<T>, in which all items less than pivot will be
-	 *            enqueued.
-	 * @param dEquals
-	 *            is a DList<T>, in which all items equal to the pivot will be
-	 *            enqueued.
-	 * @param dLarge
-	 *            is a DList<T>, in which all items greater than pivot will be
-	 *            enqueued.
-	 * @author Eldon Schoop
-	 * @see DList#sort()
+	 * @see DList#sort(Comparator)
 	 **/
-	private void partition(DList<T> dIn, Comparable pivot, DList<T> dSmall,
-			DList<T> dEquals, DList<T> dLarge) {
-		while (!dIn.isEmpty()) {
-			if (pivot.compareTo((Comparable) dIn.frontItem()) > 0) {
-				dSmall.insertBack(dIn.frontItem());
-				dIn.removeFront();
-			} else if (pivot.compareTo((Comparable) dIn.frontItem()) < 0) {
-				dLarge.insertBack(dIn.frontItem());
-				dIn.removeFront();
-			} else {
-				dEquals.insertBack(dIn.frontItem());
-				dIn.removeFront();
+	public void sort() {
+		sort(null);
+	}
+
+	/**
+	 * sort() sorts "this" DList in place from smallest to largest according
+	 * to the given Comparator, or to the items' natural ordering if c is
+	 * null. The sort is stable: equal items keep their relative order.
+	 * 
+	 * This is an iterative bottom-up merge sort that relinks the existing
+	 * DListNodes rather than copying items into new lists. bins[i] holds a
+	 * sorted run of 2^i nodes (or null); each node from the list is merged
+	 * into the bins like a carry propagating through a binary counter, and
+	 * the bins are merged together at the end. Only the bins array is
+	 * allocated, and there is no recursion.
+	 * 
+	 * Performance: runs in O(n log n) time in the worst case, with O(1)
+	 * extra space.
+	 * 
+	 * @param c the Comparator to order the items by, or null to use their
+	 *          natural ordering.
+	 **/
+	@SuppressWarnings("unchecked")
+	public void sort(Comparator<? super T> c) {
+		if (size < 2) {
+			return;
+		}
+		// Unhook the nodes as a null-terminated chain linked by "next" only.
+		head.prev.next = null;
+		DListNode<T> rest = head.next;
+		DListNode<T>[] bins = new DListNode[32];
+		int top = 0;
+		while (rest != null) {
+			DListNode<T> run = rest;
+			rest = rest.next;
+			run.next = null;
+			int i = 0;
+			while (bins[i] != null) {
+				run = merge(bins[i], run, c);
+				bins[i] = null;
+				i++;
 			}
+			bins[i] = run;
+			top = Math.max(top, i);
 		}
+		// Lower bins hold later items, so each bin goes on the left.
+		DListNode<T> sorted = null;
+		for (int i = 0; i <= top; i++) {
+			if (bins[i] != null) {
+				sorted = (sorted == null) ? bins[i] : merge(bins[i], sorted, c);
+			}
+		}
+		relink(sorted);
 	}
 
 	/**
-	 * sort() sorts "this" DList in place from smallest to largest using the
-	 * quicksort algorithm.
+	 * Lists shorter than this are sorted sequentially by parallelSort().
+	 **/
+	public static final int PARALLEL_THRESHOLD = 1 << 13;
+
+	/**
+	 * parallelSort() sorts "this" DList like sort(), using the items' natural
+	 * ordering, but spreads the work over the common ForkJoinPool.
 	 * 
-	 * Performance: Runs in O(n^2) worst case, and O(nlogn) average case time.
-	 * @author Eldon Schoop
+	 * @see DList#parallelSort(Comparator, int)
 	 **/
-	public void sort() {
-		DList<T> smaller = new DList<T>();
-		DList<T> same = new DList<T>();
-		DList<T> larger = new DList<T>();
-		if (length() > 1) {
-			int pIdx = ((int) Math.random() * length());
-			Object pivot = nth(pIdx);
-			partition(this, ((Comparable) pivot), smaller, same, larger);
-			smaller.sort();
-			larger.sort();
+	public void parallelSort() {
+		parallelSort(null, PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * parallelSort() sorts "this" DList like sort(c), but spreads the work
+	 * over the common ForkJoinPool.
+	 * 
+	 * @see DList#parallelSort(Comparator, int)
+	 **/
+	public void parallelSort(Comparator<? super T> c) {
+		parallelSort(c, PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * parallelSort() sorts "this" DList in place, stably, according to the
+	 * given Comparator (or the natural ordering if c is null). The nodes are
+	 * copied into an array, which is split in halves recursively; halves of
+	 * at most "threshold" nodes are sorted sequentially in parallel tasks
+	 * and then merged back up. The existing nodes are then relinked in sorted
+	 * order, as sort() does, so each item stays in its own node and anything
+	 * holding a node (such as a HashTable bucket) still finds its item there.
+	 * Lists of at most "threshold" items are sorted with sort(c) instead.
+	 * 
+	 * Performance: O(n log n) work; two arrays of n references are
+	 * allocated.
+	 * 
+	 * @param c the Comparator to order the items by, or null to use their
+	 *          natural ordering.
+	 * @param threshold the largest chunk sorted by a single task.
+	 **/
+	@SuppressWarnings("unchecked")
+	public void parallelSort(Comparator<? super T> c, int threshold) {
+		threshold = Math.max(threshold, 2);
+		if (size <= threshold) {
+			sort(c);
+			return;
 		}
-		appendDList(smaller);
-		appendDList(same);
-		appendDList(larger);
+		DListNode<T>[] nodes = (DListNode<T>[]) new DListNode<?>[size];
+		int i = 0;
+		for (DListNode<T> node = head.next; node != head; node = node.next) {
+			nodes[i++] = node;
+		}
+		ForkJoinPool.commonPool().invoke(new SortTask<T>(nodes,
+				(DListNode<T>[]) new DListNode<?>[size], 0, size, threshold, c));
+		for (i = 0; i < size - 1; i++) {
+			nodes[i].next = nodes[i + 1];
+		}
+		nodes[size - 1].next = null;
+		relink(nodes[0]);
+	}
+
+	/**
+	 * A fork/join merge sort of the nodes nodes[lo, hi) by their items, using
+	 * the same range of tmp as merge space.
+	 **/
+	private static class SortTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final DListNode<T>[] nodes;
+		private final DListNode<T>[] tmp;
+		private final int lo;
+		private final int hi;
+		private final int threshold;
+		private final Comparator<? super T> c;
+
+		SortTask(DListNode<T>[] nodes, DListNode<T>[] tmp, int lo, int hi,
+				int threshold, Comparator<? super T> c) {
+			this.nodes = nodes;
+			this.tmp = tmp;
+			this.lo = lo;
+			this.hi = hi;
+			this.threshold = threshold;
+			this.c = c;
+		}
+
+		protected void compute() {
+			if (hi - lo <= threshold) {
+				// Arrays.sort() on objects is a stable merge sort (TimSort).
+				Arrays.sort(nodes, lo, hi, new Comparator<DListNode<T>>() {
+					public int compare(DListNode<T> x, DListNode<T> y) {
+						return DList.compare(x.item, y.item, c);
+					}
+				});
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			invokeAll(new SortTask<T>(nodes, tmp, lo, mid, threshold, c),
+					new SortTask<T>(nodes, tmp, mid, hi, threshold, c));
+			// Merge the sorted halves into tmp, then copy back.
+			int a = lo;
+			int b = mid;
+			int out = lo;
+			while (a < mid && b < hi) {
+				if (DList.compare(nodes[b].item, nodes[a].item, c) < 0) {
+					tmp[out++] = nodes[b++];
+				} else {
+					tmp[out++] = nodes[a++];
+				}
+			}
+			System.arraycopy(nodes, a, tmp, out, mid - a);
+			System.arraycopy(nodes, b, tmp, out + mid - a, hi - b);
+			System.arraycopy(tmp, lo, nodes, lo, hi - lo);
+		}
+	}
+
+	/**
+	 * merge() merges two sorted, null-terminated chains into one, taking
+	 * from "a" on ties so that the merge is stable.
+	 * 
+	 * @return the first node of the merged chain.
+	 **/
+	private static <T> DListNode<T> merge(DListNode<T> a, DListNode<T> b,
+			Comparator<? super T> c) {
+		DListNode<T> first;
+		if (compare(b.item, a.item, c) < 0) {
+			first = b;
+			b = b.next;
+		} else {
+			first = a;
+			a = a.next;
+		}
+		DListNode<T> tail = first;
+		while (a != null && b != null) {
+			if (compare(b.item, a.item, c) < 0) {
+				tail.next = b;
+				b = b.next;
+			} else {
+				tail.next = a;
+				a = a.next;
+			}
+			tail = tail.next;
+		}
+		tail.next = (a != null) ? a : b;
+		return first;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> int compare(T x, T y, Comparator<? super T> c) {
+		if (c == null) {
+			return ((Comparable<Object>) x).compareTo(y);
+		}
+		return c.compare(x, y);
+	}
+
+	/**
+	 * relink() makes the null-terminated chain starting at "first" the
+	 * contents of "this" DList, restoring the prev links and circularity.
+	 * The chain must hold exactly the nodes of "this" DList.
+	 **/
+	private void relink(DListNode<T> first) {
+		DListNode<T> prev = head;
+		for (DListNode<T> node = first; node != null; node = node.next) {
+			node.prev = prev;
+			prev = node;
+		}
+		head.next = first;
+		prev.next = head;
+		head.prev = prev;
 	}
 
 	/**
@@ -632,9 +860,145 @@ public class DList<T> implements Iterable<T> {
 		System.out.println(d.toString());
 	}
 
+	/**
+	 * Orders {key, position} pairs by key only, so equal keys can be told
+	 * apart afterward by their original positions.
+	 **/
+	private static final Comparator<int[]> BY_KEY = new Comparator<int[]>() {
+		public int compare(int[] x, int[] y) {
+			return Integer.compare(x[0], y[0]);
+		}
+	};
+
+	/**
+	 * Returns a list of "size" {key, position} pairs with keys drawn from a
+	 * small range, so that there are many duplicates.
+	 **/
+	private static DList<int[]> makeRandomPairs(int size, Random r) {
+		DList<int[]> d = new DList<int[]>();
+		for (int i = 0; i < size; i++) {
+			d.insertBack(new int[] { r.nextInt(size / 4 + 1), i });
+		}
+		return d;
+	}
+
+	/**
+	 * Returns true if d holds "size" pairs in key order, with equal keys in
+	 * their original order, and its prev links agree with its next links.
+	 **/
+	private static boolean isStablySorted(DList<int[]> d, int size) {
+		if (d.length() != size) {
+			return false;
+		}
+		boolean[] seen = new boolean[size];
+		int count = 0;
+		DListNode<int[]> prev = d.head;
+		for (DListNode<int[]> node = d.head.next; node != d.head; node = node.next) {
+			if (node.prev != prev || seen[node.item[1]]) {
+				return false;
+			}
+			seen[node.item[1]] = true;
+			if (prev != d.head) {
+				int[] x = prev.item;
+				int[] y = node.item;
+				if (x[0] > y[0] || (x[0] == y[0] && x[1] > y[1])) {
+					return false;
+				}
+			}
+			prev = node;
+			count++;
+		}
+		return count == size && d.head.prev == prev;
+	}
+
+	private static void testSortOrderAndStability() {
+		Random r = new Random(10);
+		boolean ok = true;
+		int[] sizes = { 0, 1, 2, 3, 31, 32, 33, 1000, 4097 };
+		for (int size : sizes) {
+			DList<int[]> d = makeRandomPairs(size, r);
+			d.sort(BY_KEY);
+			ok &= isStablySorted(d, size);
+		}
+		System.out.println("sort() orders stably, with duplicates: " + ok);
+
+		DList<Integer> natural = makeRandom(500);
+		natural.sort();
+		Integer last = Integer.MIN_VALUE;
+		ok = natural.length() == 500;
+		for (Integer i : natural) {
+			ok &= last <= i;
+			last = i;
+		}
+		System.out.println("sort() by natural ordering: " + ok);
+	}
+
+	private static void testParallelSort() {
+		Random r = new Random(11);
+		boolean ok = true;
+		int[] sizes = { 0, 5, 100, 5000, 20000 };
+		for (int size : sizes) {
+			// A small threshold forces several levels of tasks and merges.
+			DList<int[]> d = makeRandomPairs(size, r);
+			d.parallelSort(BY_KEY, 64);
+			ok &= isStablySorted(d, size);
+			d = makeRandomPairs(size, r);
+			d.parallelSort(BY_KEY);
+			ok &= isStablySorted(d, size);
+		}
+		System.out.println("parallelSort() orders stably, with duplicates: "
+				+ ok);
+	}
+
+	/**
+	 * Splits sp as far as it will go, traversing each piece in order, and
+	 * appends the items to "out". Returns false if any piece's size was
+	 * wrong or it lacked the ORDERED, SIZED and SUBSIZED characteristics.
+	 **/
+	private static <T> boolean splitAll(Spliterator<T> sp, List<T> out) {
+		int wanted = Spliterator.ORDERED | Spliterator.SIZED
+				| Spliterator.SUBSIZED;
+		boolean ok = (sp.characteristics() & wanted) == wanted;
+		Spliterator<T> prefix = sp.trySplit();
+		if (prefix != null) {
+			ok &= splitAll(prefix, out);            // the prefix comes first
+			return splitAll(sp, out) && ok;
+		}
+		long size = sp.getExactSizeIfKnown();
+		int before = out.size();
+		sp.forEachRemaining(out::add);
+		return ok && size == out.size() - before;
+	}
+
+	private static void testSpliterator() {
+		boolean ok = true;
+		int[] sizes = { 0, 1, 63, 64, 1000, 10000 };
+		for (int size : sizes) {
+			DList<Integer> d = new DList<Integer>();
+			for (int i = 0; i < size; i++) {
+				d.insertBack(i);
+			}
+			ArrayList<Integer> out = new ArrayList<Integer>();
+			ok &= d.spliterator().estimateSize() == size;
+			ok &= splitAll(d.spliterator(), out);
+			ok &= out.size() == size;
+			for (int i = 0; i < out.size(); i++) {
+				ok &= out.get(i) == i;               // each item once, in order
+			}
+			ok &= d.stream().count() == size;
+			ok &= d.parallelStream().mapToLong(Integer::longValue).sum()
+					== (long) size * (size - 1) / 2;
+		}
+		System.out.println("spliterator() splits cover every item once, in "
+				+ "order: " + ok);
+	}
+
 	public static void main(String[] argv) {
 		// runJRSTests();
 		// runEldonTests();
 		// testSort();
+		testSortOrderAndStability();
+		testParallelSort();
+		testSpliterator();
 	}
 }
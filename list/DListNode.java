@@ -118,7 +118,7 @@ public class DListNode<T> {
 		if (!isValidNode()) {
 			throw new InvalidNodeException("insertAfter() called on invalid node");
 		}
-		next.prev = new DListNode<T>(item, (DList<T>) myList, this, next);
+		next.prev = myList.newNode(item, myList, this, next);
 		next = next.prev;
 		myList.size++;
 	}
@@ -135,14 +135,15 @@ public class DListNode<T> {
 		if (!isValidNode()) {
 			throw new InvalidNodeException("insertBefore() called on invalid node");
 		}
-		prev.next = new DListNode<T>(item, (DList<T>) myList, prev, this);
+		prev.next = myList.newNode(item, myList, prev, this);
 		prev = prev.next;
 		myList.size++;
 	}
 
 	/**
 	 * remove() removes this node from its DList<T>. If this node is invalid,
-	 * throws an exception.
+	 * throws an exception. If the list recycles its nodes (see
+	 * DList.setNodePool()), this node goes back to the pool.
 	 * 
 	 * @exception InvalidNodeException if this node is not valid.
 	 * Performance: runs in O(1) time.
@@ -151,15 +152,19 @@ public class DListNode<T> {
 		if (!isValidNode()) {
 			throw new InvalidNodeException("remove() called on invalid node");
 		}
+		DList<T> list = myList;
 		prev.next = next;
 		next.prev = prev;
-		myList.size--;
+		list.size--;
 
 		// Make this node an invalid node, so it cannot be used to corrupt myList.
 		myList = null;
 		// Set other references to null to improve garbage collection.
 		next = null;
 		prev = null;
+		if (list.pool != null) {
+			list.pool.release(this);
+		}
 	}
 
 }
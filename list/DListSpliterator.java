@@ -0,0 +1,83 @@
+/* list/DListSpliterator.java */
+
+package list;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * A Spliterator over a run of nodes of a DList<T>, for DList.stream() and
+ * DList.parallelStream(). It is ORDERED, SIZED and SUBSIZED: every split
+ * knows exactly how many items it covers.
+ *
+ * trySplit() hands off the first half of the remaining nodes. Finding the
+ * midpoint of a linked list means walking to it, so a split costs time
+ * proportional to the items it hands off; runs shorter than MIN_SPLIT are
+ * not split. The list must not be modified while it is being traversed.
+ */
+class DListSpliterator<T> implements Spliterator<T> {
+
+	static final int MIN_SPLIT = 64;
+
+	/**
+	 * The run covered is "next" up to but not including "end", which is
+	 * either the list's sentinel or the first node of a run handed off by an
+	 * earlier split. "remaining" is the number of nodes in the run.
+	 */
+	private DListNode<T> next;
+	private final DListNode<T> end;
+	private int remaining;
+
+	DListSpliterator(DList<T> l) {
+		this(l.head.next, l.head, l.size);
+	}
+
+	private DListSpliterator(DListNode<T> next, DListNode<T> end, int remaining) {
+		this.next = next;
+		this.end = end;
+		this.remaining = remaining;
+	}
+
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (remaining == 0) {
+			return false;
+		}
+		T item = next.item;
+		next = next.next;
+		remaining--;
+		action.accept(item);
+		return true;
+	}
+
+	public void forEachRemaining(Consumer<? super T> action) {
+		DListNode<T> n = next;
+		next = end;
+		remaining = 0;
+		for (; n != end; n = n.next) {
+			action.accept(n.item);
+		}
+	}
+
+	public Spliterator<T> trySplit() {
+		if (remaining < MIN_SPLIT) {
+			return null;
+		}
+		int half = remaining >>> 1;
+		DListNode<T> mid = next;
+		for (int i = 0; i < half; i++) {
+			mid = mid.next;
+		}
+		Spliterator<T> prefix = new DListSpliterator<T>(next, mid, half);
+		next = mid;
+		remaining -= half;
+		return prefix;
+	}
+
+	public long estimateSize() {
+		return remaining;
+	}
+
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED;
+	}
+}
@@ -0,0 +1,240 @@
+/* IntArrayDeque.java */
+
+package list;
+
+import java.util.*;
+
+/**
+ * An IntArrayDeque is a double-ended queue of primitive ints, stored unboxed
+ * in a circular int[] whose length is a power of two. Inserting and removing
+ * at either end is amortized O(1) and allocates only when the array grows,
+ * so it serves as an allocation-free FIFO queue for breadth-first search
+ * (insertBack()/removeFront()) or as a stack.
+ *
+ * Position 0 is the front.
+ **/
+
+public class IntArrayDeque {
+
+	/**
+	 * The items are items[head], items[(head + 1) & mask], ... for size
+	 * items.
+	 **/
+	protected int[] items;
+	protected int head;
+	protected int size;
+
+	/**
+	 * IntArrayDeque() constructs an empty deque.
+	 **/
+	public IntArrayDeque() {
+		this(16);
+	}
+
+	/**
+	 * IntArrayDeque() constructs an empty deque that can hold "capacity"
+	 * items before it has to grow.
+	 **/
+	public IntArrayDeque(int capacity) {
+		int n = 2;
+		while (n < capacity && n < (1 << 30)) {
+			n <<= 1;
+		}
+		items = new int[n];
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int length() {
+		return size;
+	}
+
+	private void grow() {
+		int[] bigger = new int[items.length * 2];
+		int firstPart = Math.min(size, items.length - head);
+		System.arraycopy(items, head, bigger, 0, firstPart);
+		System.arraycopy(items, 0, bigger, firstPart, size - firstPart);
+		items = bigger;
+		head = 0;
+	}
+
+	/**
+	 * insertFront() inserts an item at the front. Performance: amortized
+	 * O(1).
+	 **/
+	public void insertFront(int item) {
+		if (size == items.length) {
+			grow();
+		}
+		head = (head - 1) & (items.length - 1);
+		items[head] = item;
+		size++;
+	}
+
+	/**
+	 * insertBack() inserts an item at the back. Performance: amortized O(1).
+	 **/
+	public void insertBack(int item) {
+		if (size == items.length) {
+			grow();
+		}
+		items[(head + size) & (items.length - 1)] = item;
+		size++;
+	}
+
+	/**
+	 * frontItem() returns the item at the front.
+	 *
+	 * @exception NoSuchElementException if the deque is empty.
+	 **/
+	public int frontItem() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return items[head];
+	}
+
+	/**
+	 * backItem() returns the item at the back.
+	 *
+	 * @exception NoSuchElementException if the deque is empty.
+	 **/
+	public int backItem() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return items[(head + size - 1) & (items.length - 1)];
+	}
+
+	/**
+	 * removeFront() removes and returns the item at the front. Performance:
+	 * O(1).
+	 *
+	 * @exception NoSuchElementException if the deque is empty.
+	 **/
+	public int removeFront() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		int item = items[head];
+		head = (head + 1) & (items.length - 1);
+		size--;
+		return item;
+	}
+
+	/**
+	 * removeBack() removes and returns the item at the back. Performance:
+	 * O(1).
+	 *
+	 * @exception NoSuchElementException if the deque is empty.
+	 **/
+	public int removeBack() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		size--;
+		return items[(head + size) & (items.length - 1)];
+	}
+
+	/**
+	 * get() returns the item at position i, counting from the front.
+	 * Performance: O(1).
+	 *
+	 * @exception IndexOutOfBoundsException if i < 0 or i >= length().
+	 **/
+	public int get(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("index " + i + ", length " + size);
+		}
+		return items[(head + i) & (items.length - 1)];
+	}
+
+	/**
+	 * Appends every item of an array at the back, growing the deque before
+	 * copying rather than during it.
+	 **/
+	public void append(int[] more) {
+		while (size + more.length > items.length) {
+			grow();
+		}
+		for (int item : more) {
+			items[(head + size) & (items.length - 1)] = item;
+			size++;
+		}
+	}
+
+	/**
+	 * purge() removes every item. The capacity is unchanged.
+	 **/
+	public void purge() {
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * toArray() returns a new array holding the items from front to back.
+	 **/
+	public int[] toArray() {
+		int[] ret = new int[size];
+		for (int i = 0; i < size; i++) {
+			ret[i] = items[(head + i) & (items.length - 1)];
+		}
+		return ret;
+	}
+
+	public String toString() {
+		String result = "[  ";
+		for (int i = 0; i < size; i++) {
+			result = result + items[(head + i) & (items.length - 1)] + "  ";
+		}
+		return result + "]";
+	}
+
+	public static void main(String[] argv) {
+		IntArrayDeque d = new IntArrayDeque(4);
+		// Run the head around the ring many times without growing.
+		boolean ok = true;
+		for (int round = 0; round < 50; round++) {
+			d.insertBack(round);
+			d.insertBack(-round);
+			ok &= d.removeFront() == round && d.removeFront() == -round;
+		}
+		System.out.println("FIFO order across wraparound: " + ok
+				+ ", capacity should still be 4: " + d.items.length);
+
+		// Grow while the contents wrap around the end of the array.
+		d.insertBack(1);
+		d.insertBack(2);
+		d.insertFront(0);
+		d.insertFront(-1);
+		d.insertBack(3);
+		d.insertFront(-2);
+		System.out.println("after growing, should be [  -2  -1  0  1  2  3  ]: "
+				+ d);
+		ok = d.length() == 6 && d.frontItem() == -2 && d.backItem() == 3;
+		for (int i = 0; i < d.length(); i++) {
+			ok &= d.get(i) == i - 2;
+		}
+		ok &= Arrays.equals(d.toArray(), new int[] { -2, -1, 0, 1, 2, 3 });
+		System.out.println("get(), frontItem(), backItem() and toArray() "
+				+ "agree: " + ok);
+
+		d.append(new int[] { 4, 5, 6, 7, 8, 9, 10, 11, 12 });
+		ok = d.length() == 15;
+		for (int i = -2; i <= 12; i++) {
+			ok &= d.removeFront() == i;
+		}
+		System.out.println("append() then drain in order: " + ok
+				+ ", isEmpty() should be true: " + d.isEmpty());
+		try {
+			d.removeBack();
+			System.out.println("removeBack() on an empty deque should throw "
+					+ "an exception, but didn't.");
+		} catch (NoSuchElementException e) {
+			System.out.println("removeBack() on an empty deque should throw "
+					+ "an exception, and did.");
+		}
+	}
+}
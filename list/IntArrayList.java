@@ -0,0 +1,227 @@
+/* IntArrayList.java */
+
+package list;
+
+import java.util.*;
+
+/**
+ * An IntArrayList is a growable list of primitive ints, stored unboxed in a
+ * single int[]. Appending is amortized O(1) and allocates only when the
+ * array grows, so an IntArrayList works as an allocation-free stack
+ * (insertBack()/removeBack()) or vertex-index buffer in graph algorithms.
+ *
+ * Positions run from 0 to length() - 1.
+ **/
+
+public class IntArrayList {
+
+	/**
+	 * items holds the list in items[0] through items[size - 1].
+	 **/
+	protected int[] items;
+	protected int size;
+
+	/**
+	 * IntArrayList() constructs an empty list.
+	 **/
+	public IntArrayList() {
+		this(10);
+	}
+
+	/**
+	 * IntArrayList() constructs an empty list that can hold "capacity" items
+	 * before it has to grow.
+	 **/
+	public IntArrayList(int capacity) {
+		items = new int[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * isEmpty() returns true if this list is empty. Performance: O(1).
+	 **/
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * length() returns the length of this list. Performance: O(1).
+	 **/
+	public int length() {
+		return size;
+	}
+
+	/**
+	 * ensureCapacity() makes sure the list can hold "capacity" items without
+	 * growing again.
+	 **/
+	public void ensureCapacity(int capacity) {
+		if (capacity > items.length) {
+			items = Arrays.copyOf(items,
+					Math.max(capacity, items.length + (items.length >> 1)));
+		}
+	}
+
+	/**
+	 * get() returns the item at position i. Performance: O(1).
+	 *
+	 * @exception IndexOutOfBoundsException if i < 0 or i >= length().
+	 **/
+	public int get(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("index " + i + ", length " + size);
+		}
+		return items[i];
+	}
+
+	/**
+	 * set() replaces the item at position i. Performance: O(1).
+	 *
+	 * @exception IndexOutOfBoundsException if i < 0 or i >= length().
+	 **/
+	public void set(int i, int item) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("index " + i + ", length " + size);
+		}
+		items[i] = item;
+	}
+
+	/**
+	 * insertBack() appends an item (pushes it, when the list is used as a
+	 * stack). Performance: amortized O(1).
+	 **/
+	public void insertBack(int item) {
+		if (size == items.length) {
+			ensureCapacity(size + 1);
+		}
+		items[size++] = item;
+	}
+
+	/**
+	 * Appends every item of an array, growing the list at most once.
+	 **/
+	public void append(int[] more) {
+		append(more, 0, more.length);
+	}
+
+	/**
+	 * Appends more[from] through more[to - 1], growing the list at most once.
+	 **/
+	public void append(int[] more, int from, int to) {
+		ensureCapacity(size + to - from);
+		System.arraycopy(more, from, items, size, to - from);
+		size += to - from;
+	}
+
+	/**
+	 * Appends every item of another list, growing this one at most once.
+	 **/
+	public void append(IntArrayList more) {
+		append(more.items, 0, more.size);
+	}
+
+	/**
+	 * backItem() returns the last item (the top of the stack).
+	 *
+	 * @exception NoSuchElementException if the list is empty.
+	 **/
+	public int backItem() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return items[size - 1];
+	}
+
+	/**
+	 * removeBack() removes and returns the last item (pops the stack).
+	 * Performance: O(1).
+	 *
+	 * @exception NoSuchElementException if the list is empty.
+	 **/
+	public int removeBack() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return items[--size];
+	}
+
+	/**
+	 * purge() removes every item. The capacity is unchanged.
+	 **/
+	public void purge() {
+		size = 0;
+	}
+
+	/**
+	 * sort() sorts the list into ascending order. Performance: O(n log n).
+	 **/
+	public void sort() {
+		Arrays.sort(items, 0, size);
+	}
+
+	/**
+	 * parallelSort() sorts the list into ascending order, using the common
+	 * ForkJoinPool for large lists.
+	 **/
+	public void parallelSort() {
+		Arrays.parallelSort(items, 0, size);
+	}
+
+	/**
+	 * toArray() returns a new array holding the items in order.
+	 **/
+	public int[] toArray() {
+		return Arrays.copyOf(items, size);
+	}
+
+	public String toString() {
+		String result = "[  ";
+		for (int i = 0; i < size; i++) {
+			result = result + items[i] + "  ";
+		}
+		return result + "]";
+	}
+
+	public static void main(String[] argv) {
+		IntArrayList l = new IntArrayList(1);
+		for (int i = 0; i < 1000; i++) {
+			l.insertBack(999 - i);
+		}
+		boolean ok = l.length() == 1000;
+		for (int i = 0; i < 1000; i++) {
+			ok &= l.get(i) == 999 - i;
+		}
+		System.out.println("1000 insertBack()s from capacity 1 kept in order: "
+				+ ok);
+
+		l.append(new int[] { -5, -6, -7 }, 1, 3);
+		l.append(l);
+		System.out.println("length after appends should be 2004: "
+				+ l.length() + ", backItem() should be -7: " + l.backItem());
+		System.out.println("removeBack() should be -7: " + l.removeBack());
+
+		l.sort();
+		ok = true;
+		for (int i = 1; i < l.length(); i++) {
+			ok &= l.get(i - 1) <= l.get(i);
+		}
+		System.out.println("sort() with negatives: " + ok + ", first should "
+				+ "be -7: " + l.get(0));
+		try {
+			l.get(l.length());
+			System.out.println("get(length()) should throw an exception, but "
+					+ "didn't.");
+		} catch (IndexOutOfBoundsException e) {
+			System.out.println("get(length()) should throw an exception, and "
+					+ "did.");
+		}
+		l.purge();
+		try {
+			l.removeBack();
+			System.out.println("removeBack() on an empty list should throw an "
+					+ "exception, but didn't.");
+		} catch (NoSuchElementException e) {
+			System.out.println("removeBack() on an empty list should throw an "
+					+ "exception, and did.");
+		}
+	}
+}
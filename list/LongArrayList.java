@@ -0,0 +1,239 @@
+/* LongArrayList.java */
+
+package list;
+
+import java.util.*;
+
+/**
+ * A LongArrayList is a growable list of primitive longs, stored unboxed in a
+ * single long[]. It is the long counterpart of IntArrayList, meant for
+ * packed values such as an edge's weight and index in one sortable long
+ * (see pack()).
+ *
+ * Positions run from 0 to length() - 1.
+ **/
+
+public class LongArrayList {
+
+	/**
+	 * items holds the list in items[0] through items[size - 1].
+	 **/
+	protected long[] items;
+	protected int size;
+
+	/**
+	 * LongArrayList() constructs an empty list.
+	 **/
+	public LongArrayList() {
+		this(10);
+	}
+
+	/**
+	 * LongArrayList() constructs an empty list that can hold "capacity" items
+	 * before it has to grow.
+	 **/
+	public LongArrayList(int capacity) {
+		items = new long[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * isEmpty() returns true if this list is empty. Performance: O(1).
+	 **/
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * length() returns the length of this list. Performance: O(1).
+	 **/
+	public int length() {
+		return size;
+	}
+
+	/**
+	 * ensureCapacity() makes sure the list can hold "capacity" items without
+	 * growing again.
+	 **/
+	public void ensureCapacity(int capacity) {
+		if (capacity > items.length) {
+			items = Arrays.copyOf(items,
+					Math.max(capacity, items.length + (items.length >> 1)));
+		}
+	}
+
+	/**
+	 * get() returns the item at position i. Performance: O(1).
+	 *
+	 * @exception IndexOutOfBoundsException if i < 0 or i >= length().
+	 **/
+	public long get(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("index " + i + ", length " + size);
+		}
+		return items[i];
+	}
+
+	/**
+	 * set() replaces the item at position i. Performance: O(1).
+	 *
+	 * @exception IndexOutOfBoundsException if i < 0 or i >= length().
+	 **/
+	public void set(int i, long item) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("index " + i + ", length " + size);
+		}
+		items[i] = item;
+	}
+
+	/**
+	 * insertBack() appends an item (pushes it, when the list is used as a
+	 * stack). Performance: amortized O(1).
+	 **/
+	public void insertBack(long item) {
+		if (size == items.length) {
+			ensureCapacity(size + 1);
+		}
+		items[size++] = item;
+	}
+
+	/**
+	 * Appends every item of an array, growing the list at most once.
+	 **/
+	public void append(long[] more) {
+		append(more, 0, more.length);
+	}
+
+	/**
+	 * Appends more[from] through more[to - 1], growing the list at most once.
+	 **/
+	public void append(long[] more, int from, int to) {
+		ensureCapacity(size + to - from);
+		System.arraycopy(more, from, items, size, to - from);
+		size += to - from;
+	}
+
+	/**
+	 * Appends every item of another list, growing this one at most once.
+	 **/
+	public void append(LongArrayList more) {
+		append(more.items, 0, more.size);
+	}
+
+	/**
+	 * backItem() returns the last item (the top of the stack).
+	 *
+	 * @exception NoSuchElementException if the list is empty.
+	 **/
+	public long backItem() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return items[size - 1];
+	}
+
+	/**
+	 * removeBack() removes and returns the last item (pops the stack).
+	 * Performance: O(1).
+	 *
+	 * @exception NoSuchElementException if the list is empty.
+	 **/
+	public long removeBack() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return items[--size];
+	}
+
+	/**
+	 * purge() removes every item. The capacity is unchanged.
+	 **/
+	public void purge() {
+		size = 0;
+	}
+
+	/**
+	 * sort() sorts the list into ascending order. Performance: O(n log n).
+	 **/
+	public void sort() {
+		Arrays.sort(items, 0, size);
+	}
+
+	/**
+	 * parallelSort() sorts the list into ascending order, using the common
+	 * ForkJoinPool for large lists.
+	 **/
+	public void parallelSort() {
+		Arrays.parallelSort(items, 0, size);
+	}
+
+	/**
+	 * pack() packs a signed int "high" and a non-negative int "low" into a
+	 * long that sorts by high first and then by low.
+	 **/
+	public static long pack(int high, int low) {
+		return (((long) high) << 32) | (low & 0xffffffffL);
+	}
+
+	/**
+	 * high() returns the "high" half of a long made by pack().
+	 **/
+	public static int high(long packed) {
+		return (int) (packed >> 32);
+	}
+
+	/**
+	 * low() returns the "low" half of a long made by pack().
+	 **/
+	public static int low(long packed) {
+		return (int) packed;
+	}
+
+	/**
+	 * toArray() returns a new array holding the items in order.
+	 **/
+	public long[] toArray() {
+		return Arrays.copyOf(items, size);
+	}
+
+	public String toString() {
+		String result = "[  ";
+		for (int i = 0; i < size; i++) {
+			result = result + items[i] + "  ";
+		}
+		return result + "]";
+	}
+
+	public static void main(String[] argv) {
+		int[] values = { Integer.MIN_VALUE, -70000, -1, 0, 1, 70000,
+				Integer.MAX_VALUE };
+		boolean ok = true;
+		for (int high : values) {
+			for (int low : values) {
+				long packed = pack(high, low);
+				ok &= high(packed) == high && low(packed) == low;
+			}
+		}
+		System.out.println("pack()/high()/low() round-trip negatives: " + ok);
+
+		// Sorting packed longs sorts by high (negatives first), then by low.
+		LongArrayList l = new LongArrayList(1);
+		Random r = new Random(15);
+		for (int i = 0; i < 5000; i++) {
+			l.insertBack(pack(r.nextInt(200) - 100, i));
+		}
+		ok = l.length() == 5000;
+		l.sort();
+		for (int i = 1; i < l.length(); i++) {
+			long x = l.get(i - 1);
+			long y = l.get(i);
+			ok &= high(x) < high(y) || (high(x) == high(y) && low(x) < low(y));
+		}
+		System.out.println("sort() orders by high, then low: " + ok
+				+ ", first high should be -100: " + high(l.get(0)));
+		LongArrayList copy = new LongArrayList();
+		copy.append(l);
+		copy.parallelSort();
+		System.out.println("parallelSort() agrees with sort(): "
+				+ Arrays.equals(copy.toArray(), l.toArray()));
+	}
+}
@@ -0,0 +1,129 @@
+/* NodePool.java */
+
+package list;
+
+/**
+ * A NodePool is a capped free-list of detached DListNodes. A DList given a
+ * pool (see DList.setNodePool()) returns each node to it on remove() and
+ * takes nodes from it in newNode() before allocating new ones, so a list
+ * under steady insert/remove churn stops allocating once the pool is warm.
+ *
+ * One pool may be shared by any number of lists of any item type, but it is
+ * not thread-safe: share it only among lists used by a single thread at a
+ * time.
+ *
+ * Recycling is only safe if nobody keeps a reference to a node after
+ * removing it. A removed node is invalid, as usual, until newNode() hands it
+ * out again; from then on it belongs to whatever list it was reused in.
+ **/
+
+public class NodePool {
+
+	/**
+	 * free is the first pooled node; pooled nodes are chained through their
+	 * "next" fields. count is the number of pooled nodes, never more than
+	 * capacity.
+	 **/
+	protected DListNode<Object> free;
+	protected int count;
+	protected int capacity;
+
+	protected long allocated;
+	protected long reused;
+	protected long released;
+	protected long dropped;
+
+	/**
+	 * NodePool() constructs an empty pool that keeps at most "capacity"
+	 * nodes; nodes released while it is full are left to the garbage
+	 * collector.
+	 *
+	 * @param capacity the largest number of nodes to keep.
+	 **/
+	public NodePool(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * take() returns a pooled node initialized with the given fields, or a
+	 * new node if the pool is empty.
+	 **/
+	@SuppressWarnings("unchecked")
+	<T> DListNode<T> take(T item, DList<T> list, DListNode<T> prev,
+			DListNode<T> next) {
+		if (free == null) {
+			allocated++;
+			return new DListNode<T>(item, list, prev, next);
+		}
+		DListNode<T> node = (DListNode<T>) (DListNode<?>) free;
+		free = free.next;
+		count--;
+		reused++;
+		node.item = item;
+		node.myList = list;
+		node.prev = prev;
+		node.next = next;
+		return node;
+	}
+
+	/**
+	 * release() adds a node that has just been removed from its list to the
+	 * pool, unless the pool is full.
+	 **/
+	@SuppressWarnings("unchecked")
+	void release(DListNode<?> node) {
+		if (count >= capacity) {
+			dropped++;
+			return;
+		}
+		DListNode<Object> n = (DListNode<Object>) node;
+		n.item = null;
+		n.next = free;
+		free = n;
+		count++;
+		released++;
+	}
+
+	/**
+	 * @return the number of nodes currently pooled.
+	 **/
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @return the number of nodes the pool had to allocate because it was
+	 * empty.
+	 **/
+	public long allocated() {
+		return allocated;
+	}
+
+	/**
+	 * @return the number of node requests served from the pool.
+	 **/
+	public long reused() {
+		return reused;
+	}
+
+	/**
+	 * @return the number of removed nodes taken into the pool.
+	 **/
+	public long released() {
+		return released;
+	}
+
+	/**
+	 * @return the number of removed nodes turned away because the pool was
+	 * full.
+	 **/
+	public long dropped() {
+		return dropped;
+	}
+
+	public String toString() {
+		return "pooled: " + count + "/" + capacity + "  allocated: "
+				+ allocated + "  reused: " + reused + "  released: " + released
+				+ "  dropped: " + dropped;
+	}
+}
@@ -0,0 +1,221 @@
+/* ConcurrentDisjointSets.java */
+
+package set;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  A disjoint sets ADT that any number of threads may use at once, without
+ *  locks.  find(), union() and sameSet() are linearizable:  each appears to
+ *  take effect at a single instant between its call and its return.
+ *
+ *  Each element's parent lives in an AtomicIntegerArray; a root is its own
+ *  parent.  union() links one root under the other with a single
+ *  compareAndSet, which fails (and is retried) if another thread has given
+ *  that root a parent in the meantime.  find() performs path halving with
+ *  compareAndSet too, which is safe because a parent pointer only ever moves
+ *  closer to the root.
+ *
+ *  There is no room in a root's slot for a size, so instead of union by size
+ *  roots are linked by a fixed random priority derived from their numbers
+ *  (randomized linking, after Anderson and Woll / Jayanti and Tarjan).  This
+ *  keeps trees shallow with high probability, whatever order the unions
+ *  arrive in.
+ *
+ *  The number of elements is fixed when the object is constructed.
+ *  Elements are represented by ints, numbered from zero.
+ **/
+
+public class ConcurrentDisjointSets {
+
+  private final AtomicIntegerArray parent;
+  private final AtomicInteger numSets;
+
+  /**
+   *  Construct a disjoint sets object.
+   *
+   *  @param numElements the number of elements--also the initial number of
+   *  disjoint sets, since every element is initially in its own set.
+   **/
+  public ConcurrentDisjointSets(int numElements) {
+    parent = new AtomicIntegerArray(numElements);
+    for (int i = 0; i < numElements; i++) {
+      parent.set(i, i);
+    }
+    numSets = new AtomicInteger(numElements);
+  }
+
+  /**
+   *  elementCount() returns the number of elements.
+   **/
+  public int elementCount() {
+    return parent.length();
+  }
+
+  /**
+   *  setCount() returns the number of disjoint sets.  If unions are in
+   *  progress the answer may already be out of date when it is returned.
+   **/
+  public int setCount() {
+    return numSets.get();
+  }
+
+  /**
+   *  find() finds the (int) name of the set containing a given element.
+   *  Performs path halving along the way.  If unions run concurrently, the
+   *  name returned was x's root at some instant during the call.
+   *
+   *  @param x the element sought.
+   *  @return the set containing x.
+   **/
+  public int find(int x) {
+    int p;
+    while ((p = parent.get(x)) != x) {
+      int gp = parent.get(p);
+      if (gp == p) {
+        return p;                           // p is the root; return it
+      }
+      parent.compareAndSet(x, p, gp);     // may fail; either way x moves up
+      x = gp;
+    }
+    return x;
+  }
+
+  /**
+   *  sameSet() returns true if x and y are in the same set.
+   *
+   *  @param x an element.
+   *  @param y another element.
+   *  @return true if x and y were in the same set at some instant during the
+   *  call, false if they were in different sets at some instant.
+   **/
+  public boolean sameSet(int x, int y) {
+    while (true) {
+      x = find(x);
+      y = find(y);
+      if (x == y) {
+        return true;
+      }
+      // If x is still a root, x and y were apart when y's root was read.
+      if (parent.get(x) == x) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   *  union() unites the sets containing x and y.  Unlike
+   *  DisjointSets.union(), x and y need not be roots.
+   *
+   *  @param x an element of the first set.
+   *  @param y an element of the other set.
+   *  @return true if this call united two sets, false if x and y were
+   *  already in the same set.
+   **/
+  public boolean union(int x, int y) {
+    while (true) {
+      x = find(x);
+      y = find(y);
+      if (x == y) {
+        return false;
+      }
+      if (outranks(x, y)) {                       // link the lower root below
+        int t = x;
+        x = y;
+        y = t;
+      }
+      if (parent.compareAndSet(x, x, y)) {
+        numSets.decrementAndGet();
+        return true;
+      }
+      // x was linked by someone else first; retry from the new roots.
+    }
+  }
+
+  /**
+   *  Returns true if root x should become the parent of root y.  Priorities
+   *  are a fixed scramble of the element numbers, so they are the same for
+   *  every thread and never change.
+   **/
+  private static boolean outranks(int x, int y) {
+    int px = priority(x);
+    int py = priority(y);
+    return px > py || (px == py && x > y);
+  }
+
+  private static int priority(int x) {
+    x ^= x >>> 16;                              // MurmurHash3's finalizer
+    x *= 0x85ebca6b;
+    x ^= x >>> 13;
+    x *= 0xc2b2ae35;
+    x ^= x >>> 16;
+    return x;
+  }
+
+  /**
+   *  main() is test code.  Several threads apply the same list of random
+   *  unions at once, each starting at a different point in the list, so they
+   *  race on every union; the result must match a sequential DisjointSets
+   *  that applied the list once.
+   **/
+  public static void main(String[] args) throws InterruptedException {
+    final int numElements = 1 << 16;
+    final int numThreads = 4;
+    final int numPairs = numElements / 2;       // leaves many separate sets
+    final int[] first = new int[numPairs];
+    final int[] second = new int[numPairs];
+    java.util.Random r = new java.util.Random(17);
+    for (int i = 0; i < numPairs; i++) {
+      first[i] = r.nextInt(numElements);
+      second[i] = r.nextInt(numElements);
+    }
+
+    DisjointSets sequential = new DisjointSets(numElements);
+    for (int i = 0; i < numPairs; i++) {
+      sequential.union(first[i], second[i]);
+    }
+
+    final ConcurrentDisjointSets s = new ConcurrentDisjointSets(numElements);
+    final AtomicInteger unions = new AtomicInteger();
+    Thread[] threads = new Thread[numThreads];
+    for (int t = 0; t < numThreads; t++) {
+      final int start = t * (numPairs / numThreads);
+      threads[t] = new Thread() {
+        public void run() {
+          for (int k = 0; k < numPairs; k++) {
+            int i = (start + k) % numPairs;
+            if (s.union(first[i], second[i])) {
+              unions.incrementAndGet();
+            }
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+
+    // Each concurrent set must lie inside one sequential set; with equal
+    // numbers of sets, the two partitions are then the same.
+    int[] sequentialRootOf = new int[numElements];
+    java.util.Arrays.fill(sequentialRootOf, -1);
+    boolean ok = s.setCount() == sequential.setCount();
+    for (int i = 0; i < numElements; i++) {
+      int root = s.find(i);
+      if (sequentialRootOf[root] < 0) {
+        sequentialRootOf[root] = sequential.find(i);
+      }
+      ok &= sequentialRootOf[root] == sequential.find(i);
+      ok &= s.sameSet(i, first[i % numPairs]) ==
+            (sequential.find(i) == sequential.find(first[i % numPairs]));
+    }
+    System.out.println("setCount() should be " + sequential.setCount() +
+                       ": " + s.setCount());
+    System.out.println("successful unions should be " +
+                       (numElements - sequential.setCount()) + ": " +
+                       unions.get());
+    System.out.println("sets match a sequential DisjointSets: " + ok);
+  }
+}
@@ -3,8 +3,10 @@
 package set;
 
 /**
- *  A disjoint sets ADT.  Performs union-by-size and path compression.
- *  Implemented using arrays.  There is no error checking whatsoever.
+ *  A disjoint sets ADT.  Performs union-by-size and path compression (by
+ *  path halving, so find() is iterative and safe on arbitrarily long
+ *  chains).  Implemented using arrays, which grow as elements are added
+ *  with addElement().  There is no error checking whatsoever.
  *  By adding your own error-checking, you might save yourself a lot of time
  *  finding bugs in your application code for Project 3 and Homework 9.
  *  Without error-checking, expect bad things to happen if you try to unite
@@ -17,6 +19,8 @@ package set;
 public class DisjointSets {
 
   private int[] array;
+  private int numElements;
+  private int numSets;
 
   /**
    *  Construct a disjoint sets object.
@@ -25,10 +29,65 @@ public class DisjointSets {
    *  number of disjoint sets, since every element is initially in its own set.
    **/
   public DisjointSets(int numElements) {
-    array = new int [numElements];
-    for (int i = 0; i < array.length; i++) {
+    array = new int [Math.max(numElements, 1)];
+    for (int i = 0; i < numElements; i++) {
       array[i] = -1;
     }
+    this.numElements = numElements;
+    numSets = numElements;
+  }
+
+  /**
+   *  addElement() adds a new element, in a set by itself.  Elements are
+   *  numbered in the order they are added, so the first element added to a
+   *  DisjointSets constructed with n elements is n.
+   *
+   *  Performance: amortized O(1) time.
+   *
+   *  @return the number of the new element.
+   **/
+  public int addElement() {
+    ensureCapacity(numElements + 1);
+    array[numElements] = -1;
+    numSets++;
+    return numElements++;
+  }
+
+  /**
+   *  ensureCapacity() makes room for elements up to capacity - 1 to be
+   *  added without growing the array again.  It does not add any elements.
+   *
+   *  @param capacity the number of elements to make room for.
+   **/
+  public void ensureCapacity(int capacity) {
+    if (capacity > array.length) {
+      array = java.util.Arrays.copyOf(array,
+                                      Math.max(capacity, array.length * 2));
+    }
+  }
+
+  /**
+   *  elementCount() returns the number of elements.
+   **/
+  public int elementCount() {
+    return numElements;
+  }
+
+  /**
+   *  setCount() returns the number of disjoint sets.
+   **/
+  public int setCount() {
+    return numSets;
+  }
+
+  /**
+   *  size() returns the number of elements in the set containing x.
+   *
+   *  @param x any element.
+   *  @return the size of x's set.
+   **/
+  public int size(int x) {
+    return -array[find(x)];
   }
 
   /**
@@ -45,6 +104,10 @@ public class DisjointSets {
     //reckless when you use it.
     root1 = find(root1);
     root2 = find(root2);
+    if (root1 == root2) {
+      return;                                            // already united
+    }
+    numSets--;
     //Ok now we can do stuff.
     if (array[root2] < array[root1]) {                 // root2 has larger tree
       array[root2] += array[root1];        // update # of items in root2's tree
@@ -57,19 +120,24 @@ public class DisjointSets {
 
   /**
    *  find() finds the (int) name of the set containing a given element.
-   *  Performs path compression along the way.
+   *  Performs path halving along the way:  every other element on the path
+   *  is made to point to its grandparent.  This needs no recursion and no
+   *  second pass, and gives the same amortized bound as full compression.
    *
    *  @param x the element sought.
    *  @return the set containing x.
    **/
   public int find(int x) {
-    if (array[x] < 0) {
-      return x;                         // x is the root of the tree; return it
-    } else {
-      // Find out who the root is; compress path by making the root x's parent.
-      array[x] = find(array[x]);
-      return array[x];                                       // Return the root
+    int parent;
+    while ((parent = array[x]) >= 0) {
+      int grandparent = array[parent];
+      if (grandparent < 0) {
+        return parent;                      // parent is the root; return it
+      }
+      array[x] = grandparent;             // skip a level, then continue there
+      x = grandparent;
     }
+    return x;                           // x is the root of the tree; return it
   }
 
   /**
@@ -98,5 +166,20 @@ public class DisjointSets {
       }
     }
     System.out.println();
+
+    // A chain far too long for a recursive find() to walk.
+    DisjointSets chain = new DisjointSets(0);
+    int prev = chain.addElement();
+    for (int i = 1; i < 1000000; i++) {
+      int next = chain.addElement();
+      chain.array[prev] = next;                  // link prev directly to next
+      chain.array[next] = -(i + 1);
+      chain.numSets--;
+      prev = next;
+    }
+    System.out.println("find() on a 1000000-long chain should be 999999: " +
+                       chain.find(0));
+    System.out.println("setCount() should be 1: " + chain.setCount() +
+                       ", size(0) should be 1000000: " + chain.size(0));
   }
 }
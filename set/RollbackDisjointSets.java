@@ -0,0 +1,186 @@
+/* RollbackDisjointSets.java */
+
+package set;
+
+import list.IntArrayList;
+
+/**
+ *  A disjoint sets ADT whose unions can be undone.  Performs union-by-size
+ *  but no path compression, so a union changes exactly two array entries
+ *  and find() changes none.  Every union() is recorded on an undo stack;
+ *  checkpoint() marks the current state and rollback() undoes every union
+ *  made since a checkpoint, in O(1) time per union undone.
+ *
+ *  Without path compression find() runs in O(log n) time, which union by
+ *  size guarantees on its own.  This is the structure for offline dynamic
+ *  connectivity and for trying out "what if these edges were added"
+ *  scenarios against a base forest without rebuilding it each time.
+ *
+ *  Elements are represented by ints, numbered from zero.
+ **/
+
+public class RollbackDisjointSets {
+
+  private final int[] array;
+  private int numSets;
+
+  /**
+   *  history holds two ints per union made:  the root that was linked below
+   *  the other, and the (negated) size it had before.
+   **/
+  private final IntArrayList history = new IntArrayList();
+
+  /**
+   *  Construct a disjoint sets object.
+   *
+   *  @param numElements the number of elements--also the initial number of
+   *  disjoint sets, since every element is initially in its own set.
+   **/
+  public RollbackDisjointSets(int numElements) {
+    array = new int [numElements];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = -1;
+    }
+    numSets = numElements;
+  }
+
+  /**
+   *  setCount() returns the number of disjoint sets.
+   **/
+  public int setCount() {
+    return numSets;
+  }
+
+  /**
+   *  size() returns the number of elements in the set containing x.
+   **/
+  public int size(int x) {
+    return -array[find(x)];
+  }
+
+  /**
+   *  find() finds the (int) name of the set containing a given element.
+   *  Does not modify the structure.
+   *
+   *  Performance: O(log n) time.
+   *
+   *  @param x the element sought.
+   *  @return the set containing x.
+   **/
+  public int find(int x) {
+    while (array[x] >= 0) {
+      x = array[x];
+    }
+    return x;
+  }
+
+  /**
+   *  sameSet() returns true if x and y are in the same set.
+   **/
+  public boolean sameSet(int x, int y) {
+    return find(x) == find(y);
+  }
+
+  /**
+   *  union() unites the sets containing x and y, using union by size.  x and
+   *  y need not be roots.  If they are already in the same set nothing
+   *  happens and nothing is recorded.
+   *
+   *  Performance: O(log n) time.
+   *
+   *  @param x an element of the first set.
+   *  @param y an element of the other set.
+   *  @return true if two sets were united.
+   **/
+  public boolean union(int x, int y) {
+    x = find(x);
+    y = find(y);
+    if (x == y) {
+      return false;
+    }
+    if (array[y] < array[x]) {                            // y has larger tree
+      int t = x;
+      x = y;
+      y = t;
+    }
+    history.insertBack(y);
+    history.insertBack(array[y]);
+    array[x] += array[y];
+    array[y] = x;
+    numSets--;
+    return true;
+  }
+
+  /**
+   *  checkpoint() returns a mark for the current state, to pass to
+   *  rollback() later.
+   *
+   *  @return the number of unions made so far (counting only those that
+   *  united two sets and have not been rolled back).
+   **/
+  public int checkpoint() {
+    return history.length() / 2;
+  }
+
+  /**
+   *  rollback() undoes, latest first, every union made since checkpoint()
+   *  returned the given mark.  Marks taken after that checkpoint become
+   *  invalid; earlier ones stay valid.
+   *
+   *  Performance: O(1) time per union undone.
+   *
+   *  @param checkpoint a mark returned by checkpoint().
+   *  @exception IllegalArgumentException if the mark is negative or later
+   *  than the current state.
+   **/
+  public void rollback(int checkpoint) {
+    if (checkpoint < 0 || checkpoint > checkpoint()) {
+      throw new IllegalArgumentException("checkpoint " + checkpoint +
+                                         ", current " + checkpoint());
+    }
+    while (history.length() > 2 * checkpoint) {
+      int oldSize = history.removeBack();
+      int child = history.removeBack();
+      int root = array[child];
+      array[root] -= oldSize;
+      array[child] = oldSize;
+      numSets++;
+    }
+  }
+
+  /**
+   *  main() is test code.
+   **/
+  public static void main(String[] args) {
+    RollbackDisjointSets s = new RollbackDisjointSets(16);
+    for (int i = 0; i + 1 < 8; i++) {
+      s.union(i, i + 1);
+    }
+    int base = s.checkpoint();
+    System.out.println("setCount() should be 9: " + s.setCount());
+
+    // Scenario 1: join the two halves.
+    s.union(3, 12);
+    s.union(12, 15);
+    System.out.println("scenario 1: 0 and 15 together should be true: " +
+                       s.sameSet(0, 15) + ", size(0) should be 10: " +
+                       s.size(0));
+    s.rollback(base);
+
+    // Scenario 2: leave the halves apart.
+    s.union(8, 9);
+    System.out.println("scenario 2: 0 and 15 together should be false: " +
+                       s.sameSet(0, 15) + ", size(0) should be 8: " +
+                       s.size(0));
+    s.rollback(base);
+    System.out.println("after rollback setCount() should be 9: " +
+                       s.setCount() + ", size(9) should be 1: " + s.size(9));
+
+    s.rollback(0);
+    boolean ok = s.setCount() == 16;
+    for (int i = 0; i < 16; i++) {
+      ok &= s.find(i) == i && s.size(i) == 1;
+    }
+    System.out.println("rollback(0) restores every singleton: " + ok);
+  }
+}